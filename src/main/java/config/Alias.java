@@ -0,0 +1,22 @@
+package config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares alternative names of an enum constant, which will be accepted as
+ * setting values as well, e.g. {@code @Alias({"dbg", "verbose"}) DEBUG}.
+ * Like the names of the constants, aliases are matched case-insensitively.
+ *
+ * @author JonasDoe
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Alias {
+    
+    /** The alternative names of the annotated enum constant */
+    String[] value();
+    
+}
@@ -0,0 +1,221 @@
+package config;
+
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Converts arrays to their {@code String} representation and vice versa. The
+ * elements are separated by {@value CollectionConverter#ELEMENT_DELIMITER}.
+ * {@code int[]}, {@code long[]} and {@code double[]} are parsed directly
+ * from the {@code String} without boxing any element, all other arrays are
+ * converted element by element by the {@link SettingConverter} registered for
+ * their component type.
+ *
+ * @author JonasDoe
+ */
+final class ArrayConverter {
+    /** Separates the elements */
+    private static final char DELIMITER = CollectionConverter.ELEMENT_DELIMITER;
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private ArrayConverter() {
+    }
+    
+    /**
+     * Resolves the {@code Function} which converts the {@code String}
+     * representation of an array to the array.
+     *
+     * @param componentType
+     *         of the array
+     * @param converters
+     *         providing the {@link SettingConverter} of the component type
+     * @return the converting {@code Function}
+     * @throws IllegalArgumentException
+     *         if no {@code SettingConverter} is registered for the component
+     *         type
+     */
+    static Function<String, Object> toObjectFunction(Class<?> componentType, ConverterRegistry converters) {
+        if (componentType == int.class) return ArrayConverter::parseIntArray;
+        if (componentType == long.class) return ArrayConverter::parseLongArray;
+        if (componentType == double.class) return ArrayConverter::parseDoubleArray;
+        Function<String, Object> elementFunction = converters.toObjectFunction(componentType);
+        boolean trim = componentType != String.class;
+        return string -> {
+            List<String> elements = ConfigUtils.split(string, DELIMITER);
+            Object array = Array.newInstance(componentType, elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                String element = elements.get(i);
+                Array.set(array, i, elementFunction.apply(trim ? element.trim() : element));
+            }
+            return array;
+        };
+    }
+    
+    /**
+     * Converts an array to its {@code String} representation.
+     *
+     * @param array
+     *         to be converted
+     * @param converters
+     *         providing the {@link SettingConverter}s of the elements
+     * @return the {@code String} representation
+     */
+    static String toString(Object array, ConverterRegistry converters) {
+        StringBuilder formatted = new StringBuilder();
+        int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) formatted.append(DELIMITER);
+            if (array instanceof int[]) formatted.append(((int[]) array)[i]);
+            else if (array instanceof long[]) formatted.append(((long[]) array)[i]);
+            else if (array instanceof double[]) formatted.append(((double[]) array)[i]);
+            else {
+                Object element = Array.get(array, i);
+                if (element != null) formatted.append(ConfigUtils.escape(converters.toString(element), DELIMITER));
+            }
+        }
+        return formatted.toString();
+    }
+    
+    /**
+     * Parses comma separated integers, e.g. {@code "1, 2,3"}.
+     *
+     * @param string
+     *         to be parsed
+     * @return the parsed values
+     * @throws NumberFormatException
+     *         if an element is no valid {@code int}
+     */
+    static int[] parseIntArray(String string) {
+        NumberScanner scanner = new NumberScanner(string);
+        int[] values = new int[scanner.count()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) scanner.nextLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        return values;
+    }
+    
+    /**
+     * Parses comma separated longs, e.g. {@code "1, 2,3"}.
+     *
+     * @param string
+     *         to be parsed
+     * @return the parsed values
+     * @throws NumberFormatException
+     *         if an element is no valid {@code long}
+     */
+    static long[] parseLongArray(String string) {
+        NumberScanner scanner = new NumberScanner(string);
+        long[] values = new long[scanner.count()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = scanner.nextLong(Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return values;
+    }
+    
+    /**
+     * Parses comma separated doubles, e.g. {@code "0.5, 1e3"}.
+     *
+     * @param string
+     *         to be parsed
+     * @return the parsed values
+     * @throws NumberFormatException
+     *         if an element is no valid {@code double}
+     */
+    static double[] parseDoubleArray(String string) {
+        NumberScanner scanner = new NumberScanner(string);
+        double[] values = new double[scanner.count()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Double.parseDouble(scanner.nextElement());
+        }
+        return values;
+    }
+    
+    /**
+     * Reads the elements of a comma separated {@code String} one after
+     * another.
+     */
+    private static final class NumberScanner {
+        /** The scanned {@code String} */
+        private final String string;
+        /** Index of the next character to be read */
+        private int position;
+        
+        private NumberScanner(String string) {
+            this.string = string;
+        }
+        
+        /**
+         * @return the number of elements, 0 for a blank {@code String}
+         */
+        private int count() {
+            if (string.isBlank()) return 0;
+            int count = 1;
+            for (int i = 0; i < string.length(); i++) {
+                if (string.charAt(i) == DELIMITER) count++;
+            }
+            return count;
+        }
+        
+        /**
+         * Parses the next element as whole number without creating any
+         * intermediate {@code Object}s. Accumulates negatively, so the
+         * minimum value can be parsed as well.
+         */
+        private long nextLong(long min, long max) {
+            skipWhitespaces();
+            int start = position;
+            boolean negative = false;
+            if (position < string.length() && (string.charAt(position) == '-' || string.charAt(position) == '+')) {
+                negative = string.charAt(position) == '-';
+                position++;
+            }
+            long limit = negative ? min : -max;
+            long multiplyLimit = limit / 10;
+            long value = 0;
+            int digits = 0;
+            for (; position < string.length(); position++, digits++) {
+                int digit = Character.digit(string.charAt(position), 10);
+                if (digit < 0) break;
+                if (value < multiplyLimit) throw invalidElement(start);
+                value *= 10;
+                if (value < limit + digit) throw invalidElement(start);
+                value -= digit;
+            }
+            if (digits == 0) throw invalidElement(start);
+            skipWhitespaces();
+            skipDelimiter(start);
+            return negative ? value : -value;
+        }
+        
+        /**
+         * @return the next element, trimmed
+         */
+        private String nextElement() {
+            int end = string.indexOf(DELIMITER, position);
+            if (end < 0) end = string.length();
+            String element = string.substring(position, end).trim();
+            position = end + 1;
+            return element;
+        }
+        
+        private void skipWhitespaces() {
+            while (position < string.length() && Character.isWhitespace(string.charAt(position))) position++;
+        }
+        
+        private void skipDelimiter(int elementStart) {
+            if (position < string.length()) {
+                if (string.charAt(position) != DELIMITER) throw invalidElement(elementStart);
+                position++;
+            }
+        }
+        
+        private NumberFormatException invalidElement(int elementStart) {
+            int end = string.indexOf(DELIMITER, elementStart);
+            return new NumberFormatException(
+                    "Invalid number '" + string.substring(elementStart, end < 0 ? string.length() : end).trim() + "'");
+        }
+    }
+}
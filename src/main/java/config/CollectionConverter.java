@@ -0,0 +1,125 @@
+package config;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Converts {@link List}s, {@link Set}s and {@link Map}s to their
+ * {@code String} representation and vice versa. Elements are separated by
+ * {@value #ELEMENT_DELIMITER}, keys and values of {@code Map}s by
+ * {@value #ENTRY_DELIMITER}. Both can be escaped by a backslash. If the
+ * generic type of the setting is known, its elements are converted by the
+ * {@link SettingConverter}s registered for their types. Otherwise, they are
+ * kept as {@code String}s. The results are unmodifiable.
+ *
+ * @author JonasDoe
+ */
+final class CollectionConverter extends SettingConverter {
+    /** Separates the elements */
+    static final char ELEMENT_DELIMITER = ',';
+    /** Separates keys and values of {@code Map} entries */
+    static final char ENTRY_DELIMITER = ':';
+    /** Type arguments used if the generic type of a setting is unknown */
+    private static final Type[] STRING_TYPE_ARGUMENTS = {String.class, String.class};
+    /** Either {@code List}, {@code Set} or {@code Map} */
+    private final Class<?> collectionType;
+    
+    /**
+     * Creates a new {@code CollectionConverter}.
+     *
+     * @param collectionType
+     *         either {@code List}, {@code Set} or {@code Map}
+     */
+    CollectionConverter(Class<?> collectionType) {
+        super(setting -> format(setting, Object::toString),
+                string -> parse(collectionType, string, String::toString, String::toString));
+        this.collectionType = collectionType;
+    }
+    
+    /**
+     * Converts the {@code String} representation to a collection whose
+     * elements have the specified types.
+     *
+     * @param string
+     *         representation to be converted
+     * @param typeArguments
+     *         of the collection's generic type
+     * @param converters
+     *         providing the {@link SettingConverter}s of the elements
+     * @return the unmodifiable collection
+     */
+    Object toObject(String string, Type[] typeArguments, ConverterRegistry converters) {
+        Type[] types = typeArguments.length == 0 ? STRING_TYPE_ARGUMENTS : typeArguments;
+        Function<String, Object> first = elementFunction(types[0], converters);
+        Function<String, Object> second = types.length > 1 ? elementFunction(types[1], converters) : first;
+        return parse(collectionType, string, first, second);
+    }
+    
+    /**
+     * Converts a collection to its {@code String} representation, converting
+     * its elements by the {@link SettingConverter}s registered for their
+     * classes.
+     *
+     * @param setting
+     *         to be converted
+     * @param converters
+     *         providing the {@link SettingConverter}s of the elements
+     * @return the {@code String} representation
+     */
+    String toString(Object setting, ConverterRegistry converters) {
+        return format(setting, converters::toString);
+    }
+    
+    /**
+     * Resolves the {@code Function} converting single elements. Surrounding
+     * whitespaces are ignored for all elements which aren't {@code String}s.
+     */
+    private static Function<String, Object> elementFunction(Type elementType, ConverterRegistry converters) {
+        Function<String, Object> toObject = converters.toObjectFunction(elementType);
+        if (ConverterRegistry.rawClass(elementType) == String.class) return toObject;
+        return element -> toObject.apply(element.trim());
+    }
+    
+    private static Object parse(Class<?> collectionType, String string, Function<String, Object> first,
+                                Function<String, Object> second) {
+        List<String> elements = ConfigUtils.split(string, ELEMENT_DELIMITER);
+        if (collectionType == Map.class) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (String element : elements) {
+                String[] keyAndValue = ConfigUtils.splitOnce(element, ENTRY_DELIMITER);
+                if (keyAndValue == null) throw new IllegalArgumentException(
+                        "Map entry '" + element + "' lacks the delimiter " + ENTRY_DELIMITER);
+                map.put(first.apply(keyAndValue[0]), second.apply(keyAndValue[1]));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+        Object[] converted = new Object[elements.size()];
+        for (int i = 0; i < converted.length; i++) {
+            converted[i] = first.apply(elements.get(i));
+        }
+        List<Object> list = Arrays.asList(converted);
+        // sets keep the order of their elements, so storing them doesn't shuffle the config file
+        if (collectionType == Set.class) return Collections.unmodifiableSet(new LinkedHashSet<>(list));
+        return list.contains(null) ? Collections.unmodifiableList(list) : List.of(converted);
+    }
+    
+    private static String format(Object setting, Function<Object, String> elementToString) {
+        Function<Object, String> toString = element -> element == null ? "" : elementToString.apply(element);
+        StringBuilder formatted = new StringBuilder();
+        if (setting instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) setting).entrySet()) {
+                if (formatted.length() > 0) formatted.append(ELEMENT_DELIMITER);
+                String key = ConfigUtils.escape(toString.apply(entry.getKey()), ENTRY_DELIMITER);
+                String value = ConfigUtils.escape(toString.apply(entry.getValue()), ENTRY_DELIMITER);
+                formatted.append(ConfigUtils.escape(key + ENTRY_DELIMITER + value, ELEMENT_DELIMITER));
+            }
+        } else {
+            for (Object element : (Collection<?>) setting) {
+                if (formatted.length() > 0) formatted.append(ELEMENT_DELIMITER);
+                formatted.append(ConfigUtils.escape(toString.apply(element), ELEMENT_DELIMITER));
+            }
+        }
+        return formatted.toString();
+    }
+}
@@ -1,17 +1,26 @@
 package config;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 /**
  * This class is an alternative to {@code Properties}. While it holds all
@@ -40,47 +49,278 @@ public abstract class Config {
      * called.
      */
     static final String STANDARD_FILE_NAME = "config.cfg";
+    /** Appended to the name of a config file to get the name of its journal */
+    static final String JOURNAL_SUFFIX = ".journal";
+    /** Journals smaller than this will never be folded into their config file */
+    private static final long MIN_COMPACTION_SIZE = 16 * 1024;
     /** Standard encoding if no further information is given or found */
     private static final Charset STANDARD_ENCODING = StandardCharsets.UTF_8;
-    /** Holds the config settings and represents how they will stored */
-    private Map<String, String> settings = new HashMap<>();
+    /**
+     * Holds the config settings and represents how they will stored. Never
+     * modified once set, changes replace the whole {@code Map}.
+     */
+    private volatile Map<String, String> settings = new HashMap<>();
     /** Encoding that will be applied when reading the config file */
     private Charset encoding = STANDARD_ENCODING;
     /**
      * All converters than can be used to convert {@code Objects} to
      * {@code Strings} and back
      */
-    private Map<Class<?>, SettingConverter> settingConverters = new HashMap<>();
+    private ConverterRegistry settingConverters = new ConverterRegistry();
     /** Location where config will be stored when {@link #store()} is called */
     private File usedFileName = new File(STANDARD_FILE_NAME);
+    /**
+     * The settings of newly created instances of {@code Config} classes, used
+     * to store nested {@code Config}s which are {@code null}. Computed once per
+     * class, so storing doesn't create new instances each time.
+     */
+    private static final ClassValue<Map<String, Object>> DEFAULT_SETTINGS = new ClassValue<>() {
+        @Override
+        protected Map<String, Object> computeValue(Class<?> type) {
+            try {
+                Config defaultConfig = (Config) type.getDeclaredConstructor().newInstance();
+                return Collections.unmodifiableMap(defaultConfig.collectSettingObjectsFromConfig());
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                return Collections.emptyMap();
+            }
+        }
+    };
+    /** The {@link Secret}s returned by {@link #getSecret(String)} for the current {@link #settings} */
+    private volatile SecretCache secrets;
+    /** Emits the changes of the {@link #settings} */
+    private final SettingChangePublisher changePublisher = new SettingChangePublisher();
+    /** Whether changes will be stored into a journal */
+    private boolean journal = false;
+    /** Whether the journal will be synced to the storage device on each store */
+    private boolean syncJournal = false;
+    /** The file which was last stored with journaling, {@code null} if there is none */
+    private File journaledFile;
+    /** The settings represented by the {@link #journaledFile} and its journal */
+    private Map<String, String> journaledSettings;
+    /** Values of the fields at the last store, so unchanged ones don't have to be converted again */
+    private Map<String, Object> storedValues = Collections.emptyMap();
+    /** The {@code String} representations of the {@link #storedValues} */
+    private Map<String, String> storedValuesAsStrings = Collections.emptyMap();
+    /** The file of the last store, {@code null} if there is none */
+    private File storedFile;
+    /** The {@link #settings} at the last store */
+    private Map<String, String> storedSnapshot;
+    /** All settings written by the last store */
+    private Map<String, String> storedSettings;
+    /** Size, modification time and checksum of the {@link #storedFile} after the last store, to detect other writers */
+    private long storedLength;
+    private long storedModified;
+    private long storedChecksum;
+    /** Types whose instances never change, so equal values have equal {@code String} representations */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Integer.class, Long.class,
+            Short.class, Byte.class, Double.class, Float.class, Boolean.class, Character.class, Duration.class,
+            DataSize.class, File.class, URI.class, URL.class, Class.class, Secret.class);
     
     /**
      * Saves the {@code Config} to a file specified via the a
      * {@code Constructor} with a {@link Path} parameter or
-     * {@value #STANDARD_FILE_NAME} else.
+     * {@value #STANDARD_FILE_NAME} else, see {@link #store(File)}.
      *
+     * @return the names of the settings which changed since the last store
      * @throws IOException
      *         if storing the config data to the file fails
      */
-    public void store() throws IOException {
-        store(usedFileName);
+    public Set<String> store() throws IOException {
+        return store(usedFileName);
     }
     
     /**
-     * Saves the {@code Config} to a file with the specified filename.
+     * Saves the {@code Config} to a file with the specified filename. Only
+     * field values which changed since the last store are converted again. If
+     * no setting changed since the last store into the same file, and the file
+     * hasn't been modified since, nothing is written at all. Modifications are
+     * detected via the size and the modification time of the file, and via a
+     * checksum of its content if both are unchanged. So the file is only read
+     * if no other writer is obvious, and never after writing it.
      *
      * @param configFile
      *         the name of the config file. If it exists, it will be
      *         overwritten, else it will be created.
+     * @return the names of the settings which changed since the last store
+     * into this file, or all settings if it's the first one
      * @throws IOException
      *         if storing the config data to the file fails
      */
-    public void store(File configFile) throws IOException {
-        Map<String, String> toStore = new HashMap<>(settings);
-        toStore.putAll(collectSettingsFromConfig());
-        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(configFile), encoding)) {
-            writer.write(toString(toStore));
+    public synchronized Set<String> store(File configFile) throws IOException {
+        Map<String, String> snapshot = settings;
+        Map<String, String> previousValuesAsStrings = storedValuesAsStrings;
+        Map<String, String> valuesAsStrings = collectSettingsFromConfig();
+        boolean sameFile = configFile.equals(storedFile) && configFile.isFile() &&
+                           configFile.length() == storedLength && configFile.lastModified() == storedModified &&
+                           checksum(configFile) == storedChecksum;
+        if (sameFile && snapshot == storedSnapshot && valuesAsStrings.equals(previousValuesAsStrings))
+            return Collections.emptySet();
+        Map<String, String> toStore = new HashMap<>(snapshot);
+        toStore.putAll(valuesAsStrings);
+        Set<String> changed = new HashSet<>();
+        if (sameFile) {
+            toStore.forEach((key, value) -> {
+                if (!value.equals(storedSettings.get(key))) changed.add(key);
+            });
+            if (changed.isEmpty()) {
+                storedSnapshot = snapshot;
+                return Collections.emptySet();
+            }
+        } else changed.addAll(toStore.keySet());
+        long checksum;
+        if (journal) {
+            checksum = storeJournaled(configFile, toStore);
+            // only the journal was appended to, the config file itself is unchanged
+            if (checksum < 0) checksum = sameFile ? storedChecksum : checksum(configFile);
         }
+        // an outdated journal would be replayed on top of the stored settings, so it has to be folded in
+        else if (journalOf(configFile).exists()) checksum = compact(configFile, toStore);
+        else {
+            ByteBuffer content = encoding.encode(toString(toStore));
+            checksum = checksum(content);
+            try (FileChannel channel = FileChannel.open(configFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+            }
+        }
+        storedFile = configFile;
+        storedSnapshot = snapshot;
+        storedSettings = toStore;
+        storedLength = configFile.length();
+        storedModified = configFile.lastModified();
+        storedChecksum = checksum;
+        return Collections.unmodifiableSet(changed);
+    }
+    
+    /**
+     * @return the CRC32 checksum of the file's content
+     */
+    private static long checksum(File file) throws IOException {
+        return checksum(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+    }
+    
+    /**
+     * @return the CRC32 checksum of the remaining content, which is not
+     * consumed
+     */
+    private static long checksum(ByteBuffer content) {
+        CRC32 checksum = new CRC32();
+        checksum.update(content.duplicate());
+        return checksum.getValue();
+    }
+    
+    /**
+     * Returns the journal of a config file.
+     *
+     * @param configFile
+     *         the config file
+     * @return the journal file, which might not exist
+     */
+    static File journalOf(File configFile) {
+        return new File(configFile.getPath() + JOURNAL_SUFFIX);
+    }
+    
+    /**
+     * Changes several settings as one atomic batch, e.g.
+     * {@code config.update(batch -> batch.set("timeout", "5s").set("retries", 3))}.
+     * All values are converted first; if any conversion fails, nothing is
+     * changed at all. Otherwise, the settings are replaced by a new snapshot
+     * in one step, so readers see either none or all of the changes. Fields
+     * annotated by {@link Setting}, including the ones of nested
+     * {@code Config}s, are set to the new values right after the new snapshot
+     * has been published. So readers may see the new settings via
+     * {@link #getSetting(String, String)} while fields still hold the old values, but
+     * never new field values together with the old settings. The changes are
+     * emitted as one batch to the subscribers of {@link #changes()}.
+     *
+     * @param changes
+     *         sets the new values on the passed {@link SettingsUpdate}
+     * @return the settings which actually changed
+     * @throws IllegalStateException
+     *         if values could not be converted, listing all of them
+     */
+    public synchronized List<SettingChange> update(Consumer<SettingsUpdate> changes) throws IllegalStateException {
+        SettingsUpdate update = new SettingsUpdate();
+        changes.accept(update);
+        Map<String, String> failures = new LinkedHashMap<>();
+        Map<String, String> updatesAsStrings = new LinkedHashMap<>();
+        update.values().forEach((key, value) -> {
+            try {
+                updatesAsStrings.put(key, value == null ? "" : settingConverters.toString(value));
+            } catch (IllegalArgumentException e) {
+                failures.put(key, value.getClass().getName());
+            }
+        });
+        List<Runnable> assignments = new ArrayList<>();
+        if (failures.isEmpty()) prepareFieldUpdates(update.values(), updatesAsStrings, "", assignments, failures);
+        if (!failures.isEmpty()) throw new IllegalStateException(
+                "The following settings could not be updated: " + failures.entrySet().stream().map(
+                        entry -> entry.getKey() + "(" + entry.getValue() + ")").collect(Collectors.joining(", ")));
+        
+        Map<String, String> previous = settings;
+        Map<String, String> next;
+        if (previous instanceof SettingsOverlay) next = ((SettingsOverlay) previous).share();
+        else if (previous instanceof FrozenSettings) next = new SettingsOverlay(previous);
+        else next = new HashMap<>(previous);
+        List<SettingChange> applied = new ArrayList<>();
+        updatesAsStrings.forEach((key, value) -> {
+            String old = next.put(key, value);
+            if (!Objects.equals(old, value)) applied.add(
+                    new SettingChange(key, old, value, SettingChange.UPDATE_SOURCE));
+        });
+        settings = next;
+        assignments.forEach(Runnable::run);
+        changePublisher.publish(applied);
+        return Collections.unmodifiableList(applied);
+    }
+    
+    /**
+     * Returns a {@link Flow.Publisher} which emits a batch of
+     * {@link SettingChange}s whenever the settings of this {@code Config}
+     * change, e.g. because it is filled again by a {@link ConfigPreparer}.
+     * The publisher lives as long as the {@code Config}, so subscribers never
+     * get {@link Flow.Subscriber#onComplete()} and should cancel their
+     * subscription once they are not interested anymore.
+     *
+     * @return the {@code Flow.Publisher} of all changes
+     */
+    public Flow.Publisher<List<SettingChange>> changes() {
+        return changes("");
+    }
+    
+    /**
+     * Returns a {@link Flow.Publisher} like {@link #changes()}, but restricted to
+     * the settings beginning with the specified prefix, e.g. the
+     * {@link NestedConfig#prefix()} of a nested {@code Config}. The prefix is
+     * removed from the emitted keys, and subscribers won't be notified about
+     * batches without matching settings.
+     *
+     * @param prefix
+     *         of the settings of interest, e.g. "ftp."
+     * @return the {@code Flow.Publisher} of the matching changes
+     */
+    public Flow.Publisher<List<SettingChange>> changes(String prefix) {
+        return changePublisher.publisher(prefix);
+    }
+    
+    /**
+     * Compiles all settings beginning with the specified prefix into
+     * {@link FeatureFlags}, so checking a flag is a single bit test. The
+     * returned flags are a snapshot, they won't reflect later changes of the
+     * settings. Settings without value, e.g. missing ones of a stump, are
+     * disabled flags.
+     *
+     * @param prefix
+     *         of the flags, e.g. "feature."
+     * @return the compiled flags, named without the prefix
+     * @throws IllegalStateException
+     *         if a setting beginning with the prefix is no valid
+     *         {@code boolean}, see {@link ConfigUtils#parseBoolean(String)}
+     */
+    public FeatureFlags featureFlags(String prefix) throws IllegalStateException {
+        return new FeatureFlags(filterMapByPrefix(prefix));
     }
     
     @Override
@@ -98,6 +338,20 @@ public abstract class Config {
         this.encoding = encoding;
     }
     
+    /**
+     * Sets whether changes will be stored into a journal.
+     *
+     * @param journal
+     *         {@code true} if changes will be journaled
+     * @param syncJournal
+     *         {@code true} if the journal will be synced to the storage device
+     *         on each store
+     */
+    void setJournal(boolean journal, boolean syncJournal) {
+        this.journal = journal;
+        this.syncJournal = syncJournal;
+    }
+    
     /**
      * Sets the default file name to be used when the config is stored.
      *
@@ -114,8 +368,8 @@ public abstract class Config {
      * @param settingConverters
      *         to be added
      */
-    void setSettingConverters(Map<Class<?>, SettingConverter> settingConverters) {
-        this.settingConverters = new HashMap<>(settingConverters);
+    void setSettingConverters(ConverterRegistry settingConverters) {
+        this.settingConverters = new ConverterRegistry(settingConverters);
     }
     
     /**
@@ -147,13 +401,199 @@ public abstract class Config {
     }
     
     /**
-     * Set the settings backing this config.
+     * Returns the specified setting as {@link Secret}, decoded by the decoder
+     * named by its {@value Secret#ENCODED_PREFIX} prefix, if there is one. The
+     * {@code Secret} is cached until the settings change, so it is decoded at
+     * most once per fill of this {@code Config}.
+     *
+     * @param settingsName
+     *         the name of the requested setting.
+     * @return the setting specified by the name, {@code null} if it is
+     * {@code null} or empty
+     * @throws IllegalArgumentException
+     *         if the named decoder is not registered
+     */
+    protected Secret getSecret(String settingsName) throws IllegalArgumentException {
+        Map<String, String> snapshot = settings;
+        String setting = snapshot.get(settingsName);
+        if (setting == null || setting.isEmpty()) return null;
+        SecretCache cache = secrets;
+        if (cache == null || cache.snapshot != snapshot) {
+            synchronized (this) {
+                cache = secrets;
+                if (cache == null || cache.snapshot != snapshot) secrets = cache = new SecretCache(snapshot);
+            }
+        }
+        return cache.secrets.computeIfAbsent(settingsName, key -> settingConverters.toSecret(setting, ""));
+    }
+    
+    /**
+     * Set the settings backing this config. A {@link SettingsOverlay} or
+     * {@link FrozenSettings} will be taken over as it is, so its shared
+     * settings are not copied again. Synchronized like
+     * {@link #update(Consumer)}, so the settings are replaced either before or
+     * after a whole batch.
      *
      * @param toSet
      *         of the settings to be set
      */
-    void setSettings(Map<String, String> toSet) {
-        settings = new HashMap<>(toSet);
+    synchronized void setSettings(Map<String, String> toSet) {
+        Map<String, String> previous = settings;
+        Map<String, String> next = toSet instanceof SettingsOverlay || toSet instanceof FrozenSettings ? toSet :
+                                   new HashMap<>(toSet);
+        settings = next;
+        changePublisher.publishDifferences(previous, next, SettingChange.FILL_SOURCE);
+    }
+    
+    /**
+     * Stores the settings by appending the changed ones to the journal of the
+     * config file with a single write. The first store into a file, and every
+     * store after the journal has grown larger than the config file, rewrites
+     * the config file instead and removes the journal.
+     *
+     * @param configFile
+     *         the config file
+     * @param toStore
+     *         all settings to be stored
+     * @return the checksum of the rewritten config file, see
+     * {@link #compact(File, Map)}, or {@code -1} if only the journal was
+     * appended to
+     * @throws IOException
+     *         if writing fails
+     */
+    private synchronized long storeJournaled(File configFile, Map<String, String> toStore) throws IOException {
+        Path journalFile = journalOf(configFile).toPath();
+        if (!configFile.equals(journaledFile) || Files.exists(journalFile) && Files.size(journalFile) > Math.max(
+                MIN_COMPACTION_SIZE, configFile.length())) {
+            return compact(configFile, toStore);
+        }
+        appendToJournal(journalFile, toStore, journaledSettings);
+        journaledSettings = toStore;
+        return -1;
+    }
+    
+    /**
+     * Appends the settings which differ from the already journaled ones to a
+     * journal with a single write.
+     *
+     * @param journalFile
+     *         the journal
+     * @param toStore
+     *         all settings to be stored
+     * @param journaled
+     *         the settings represented by the config file and the journal
+     * @throws IOException
+     *         if writing fails
+     */
+    private void appendToJournal(Path journalFile, Map<String, String> toStore, Map<String, String> journaled)
+            throws IOException {
+        StringBuilder records = new StringBuilder();
+        toStore.forEach((key, value) -> {
+            if (!Objects.equals(value, journaled.get(key))) {
+                records.append(key).append('=').append(value).append('\n');
+            }
+        });
+        if (records.length() == 0) return;
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer content = encoding.encode(records.toString());
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            if (syncJournal) channel.force(false);
+        }
+    }
+    
+    /**
+     * Replaces the config file by one holding all settings and removes its
+     * journal. The settings are written to a temporary file first, so a crash
+     * leaves either the old or the new config file behind. An existing journal
+     * gets the changes appended before the config file is replaced, so
+     * replaying it after a crash, on top of either file, results in the new
+     * settings.
+     *
+     * @return the checksum of the written content
+     */
+    private long compact(File configFile, Map<String, String> toStore) throws IOException {
+        Path journalFile = journalOf(configFile).toPath();
+        if (Files.exists(journalFile)) appendToJournal(journalFile, toStore,
+                configFile.equals(journaledFile) ? journaledSettings : Collections.emptyMap());
+        Path target = configFile.toPath().toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        long checksum;
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer content = encoding.encode(toString(toStore));
+                checksum = checksum(content);
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                if (syncJournal) channel.force(false);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        Files.deleteIfExists(journalFile);
+        journaledFile = configFile;
+        journaledSettings = toStore;
+        return checksum;
+    }
+    
+    /**
+     * Converts the updated settings bound to {@code Config fields} into the
+     * types of the fields, but doesn't assign them yet.
+     *
+     * @param values
+     *         the updated values by the names of their settings
+     * @param valuesAsStrings
+     *         the {@code String} representations of the values
+     * @param prefix
+     *         of the settings of this {@code Config}, e.g. the
+     *         {@link NestedConfig#prefix()} of a nested one
+     * @param assignments
+     *         the prepared assignments will be added to
+     * @param failures
+     *         the names of the settings which could not be converted will
+     *         be added to, mapped to the reason
+     */
+    private void prepareFieldUpdates(Map<String, Object> values, Map<String, String> valuesAsStrings, String prefix,
+                                     List<Runnable> assignments, Map<String, String> failures) {
+        for (Field field : getAllNonPrivateFieldsOrdered(this)) {
+            try {
+                NestedConfig nestedAnnotation = field.getAnnotation(NestedConfig.class);
+                Object fieldObject = field.get(this);
+                if (nestedAnnotation != null && fieldObject instanceof Config) {
+                    ((Config) fieldObject).prepareFieldUpdates(values, valuesAsStrings,
+                            prefix + nestedAnnotation.prefix(), assignments, failures);
+                    continue;
+                }
+                Setting settingAnnotation = field.getAnnotation(Setting.class);
+                if (settingAnnotation == null) continue;
+                String descriptor = settingAnnotation.descriptor();
+                String settingName = prefix + (descriptor.isEmpty() ? field.getName() : descriptor);
+                if (!valuesAsStrings.containsKey(settingName)) continue;
+                Object value = values.get(settingName);
+                String valueAsString = valuesAsStrings.get(settingName);
+                Object converted;
+                if (value != null && field.getType().isInstance(value)) converted = value;
+                else if (valueAsString.isEmpty()) converted = null;
+                else converted = settingConverters.toObjectFunction(field, settingAnnotation, false).apply(
+                        valueAsString);
+                if (converted == null && field.getType().isPrimitive()) throw new IllegalArgumentException(
+                        "must not be empty");
+                assignments.add(() -> {
+                    try {
+                        field.set(this, converted);
+                    } catch (IllegalAccessException e) {
+                        // fields have been made accessible before
+                        throw new IllegalStateException(e);
+                    }
+                });
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                failures.put(prefix + field.getName(), e.getMessage());
+            }
+        }
     }
     
     /**
@@ -170,38 +610,6 @@ public abstract class Config {
                 Collectors.joining("\n"));
     }
     
-    /**
-     * Gets the {@link SettingConverter} linked the the requested class. If no
-     * one exists, the belonging to the next registered super class will be
-     * returned. If this fails, too, an {@link IllegalArgumentException} will be
-     * thrown.
-     *
-     * @param settingClass
-     *         a matching {@code converter} is requested to
-     * @return the matching {@code converter}
-     * @throws IllegalArgumentException
-     *         if matching {@link SettingConverter} is registered
-     */
-    private SettingConverter getConverter(Class<?> settingClass) {
-        if (settingConverters.containsKey(settingClass)) return settingConverters.get(settingClass);
-        else {
-            Set<Class<?>> supportedClasses = new TreeSet<>((c1, c2) -> {
-                if (c1.isAssignableFrom(c2)) return 1;
-                    // we do not want to override items in the TreeSet, so we won't return 0
-                else // if (c2.isAssignableFrom(c1))
-                    return -1;
-                // else return 0;
-            });
-            supportedClasses.addAll(settingConverters.keySet());
-            Class<?> supportedClass = supportedClasses.stream()
-                                                      .filter(clazz -> clazz.isAssignableFrom(settingClass))
-                                                      .findFirst()
-                                                      .orElseThrow(() -> new IllegalArgumentException(
-                                                              "Class " + settingClass.getName() + " is not supported" + "."));
-            return settingConverters.get(supportedClass);
-        }
-    }
-    
     /**
      * Returns all settings from the configuration that start with the specified
      * {@code prefix}.
@@ -212,11 +620,13 @@ public abstract class Config {
      * won't start the {@code prefix} anymore.
      */
     private Map<String, String> filterMapByPrefix(String prefix) {
+        // read the settings only once, so a concurrent fill can't mix two snapshots
+        Map<String, String> snapshot = settings;
+        if (snapshot instanceof FrozenSettings) return ((FrozenSettings) snapshot).withPrefix(prefix);
         Map<String, String> filtered = new HashMap<>();
-        settings.forEach((key, value) -> {
-            String[] prefixAndName = key.split(Pattern.quote(prefix), 2);
-            if (prefixAndName.length > 1) {
-                filtered.put(prefixAndName[1], value);
+        snapshot.forEach((key, value) -> {
+            if (key.startsWith(prefix)) {
+                filtered.put(key.substring(prefix.length()), value);
             }
         });
         return filtered;
@@ -235,6 +645,50 @@ public abstract class Config {
      * prefixed accordingly.
      */
     private Map<String, String> collectSettingsFromConfig() {
+        Map<String, Object> values = collectSettingObjectsFromConfig();
+        Map<String, String> valuesAsStrings = new HashMap<>();
+        Map<String, Object> changedValues = new HashMap<>();
+        values.forEach((key, value) -> {
+            String previous = storedValuesAsStrings.get(key);
+            if (previous != null && isUnchanged(storedValues.get(key), value)) valuesAsStrings.put(key, previous);
+            else changedValues.put(key, value);
+        });
+        valuesAsStrings.putAll(toStringStringMap(changedValues));
+        storedValues = values;
+        storedValuesAsStrings = valuesAsStrings;
+        return valuesAsStrings;
+    }
+    
+    /**
+     * Checks whether a field value is known to have the same {@code String}
+     * representation as the one it had before. Mutable values, e.g. arrays,
+     * may have been changed in place, so they are never considered unchanged.
+     * {@link URL}s are only compared by identity, since their {@code equals}
+     * may resolve host names.
+     *
+     * @param previous
+     *         value at the last store
+     * @param value
+     *         current value
+     * @return {@code true} if the value doesn't have to be converted again
+     */
+    private static boolean isUnchanged(Object previous, Object value) {
+        if (value == null) return previous == null;
+        if (!IMMUTABLE_TYPES.contains(value.getClass()) && !(value instanceof Enum) && !(value instanceof Path))
+            return false;
+        return previous == value || !(value instanceof URL) && value.equals(previous);
+    }
+    
+    /**
+     * Reads the values of all {@code Config fields} like
+     * {@link #collectSettingsFromConfig()}, but without converting them to
+     * {@code String}s. For nested {@code Config}s which are {@code null}, the
+     * {@link #DEFAULT_SETTINGS} of their class are taken.
+     *
+     * @return {@link Map} that contains with the name of each setting as key
+     * and its value as value
+     */
+    private Map<String, Object> collectSettingObjectsFromConfig() {
         Map<String, Object> settingsFromConfig = new HashMap<>();
         List<Field> sortedFields = getAllNonPrivateFieldsOrdered(this);
         for (Field field : sortedFields) {
@@ -244,17 +698,9 @@ public abstract class Config {
                     // Found nested Config
                     NestedConfig subAnnotation = field.getAnnotation(NestedConfig.class);
                     if (subAnnotation != null) {
-                        Map<String, String> settingsFromSubConfig = new HashMap<>();
-                        if (fieldObject != null) {
-                            settingsFromSubConfig.putAll(((Config) fieldObject).collectSettingsFromConfig());
-                        } else {
-                            try {
-                                settingsFromSubConfig.putAll(
-                                        ((Config) field.getType().newInstance()).collectSettingsFromConfig());
-                            } catch (InstantiationException e) {
-                                // no op
-                            }
-                        }
+                        Map<String, Object> settingsFromSubConfig = fieldObject != null ?
+                                ((Config) fieldObject).collectSettingObjectsFromConfig() : DEFAULT_SETTINGS.get(
+                                field.getType());
                         settingsFromSubConfig.forEach(
                                 (key, value) -> settingsFromConfig.put(subAnnotation.prefix() + key, value));
                     }
@@ -271,7 +717,7 @@ public abstract class Config {
             }
             
         }
-        return toStringStringMap(settingsFromConfig);
+        return settingsFromConfig;
     }
     
     /**
@@ -317,10 +763,9 @@ public abstract class Config {
         Map<String, String> updatesAsStrings = new HashMap<>();
         updates.forEach((key, value) -> {
             if (value != null) {
-                SettingConverter converter = getConverter(value.getClass());
-                if (converter != null) {
-                    updatesAsStrings.put(key, converter.toString.apply(value));
-                } else {
+                try {
+                    updatesAsStrings.put(key, settingConverters.toString(value));
+                } catch (IllegalArgumentException e) {
                     exceptions.put(key, value.getClass().getName());
                 }
             } else {
@@ -336,4 +781,16 @@ public abstract class Config {
                                                                                                      Collectors.joining(
                                                                                                              ", ")));
     }
+    
+    /**
+     * The {@link Secret}s of one snapshot of the settings.
+     */
+    private static final class SecretCache {
+        private final Map<String, String> snapshot;
+        private final Map<String, Secret> secrets = new ConcurrentHashMap<>();
+        
+        private SecretCache(Map<String, String> snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
 }
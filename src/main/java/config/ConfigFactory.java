@@ -0,0 +1,74 @@
+package config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * An immutable, prepared {@link ConfigPreparer}, created by
+ * {@link ConfigPreparer#build()}. Since neither its settings nor its
+ * {@link SettingConverter}s can change anymore, it can be shared between
+ * threads which fill {@code Config}s at the same time. Each call keeps its own
+ * state for missing settings and caused exceptions.
+ *
+ * @author JonasDoe
+ */
+public final class ConfigFactory {
+    /** Never exposed and never modified after creation */
+    private final ConfigPreparer preparer;
+    
+    /**
+     * Creates a new {@code ConfigFactory}.
+     *
+     * @param preparer
+     *         which will fill the {@code Config}s. Must not be modified
+     *         or exposed afterwards.
+     */
+    ConfigFactory(ConfigPreparer preparer) {
+        this.preparer = preparer;
+    }
+    
+    /**
+     * Fills the {@code Config} like {@link ConfigPreparer#fillConfig(Config)}.
+     *
+     * @param toFill
+     *         the config to be filled
+     * @return the filled {@code Config}
+     * @throws IllegalStateException
+     *         if non-optional settings are missing or a field could not be
+     *         set due to another reason
+     */
+    public <T extends Config> T fillConfig(T toFill) throws IllegalStateException {
+        return preparer.fillConfig(toFill);
+    }
+    
+    /**
+     * Fills the {@code Config} like
+     * {@link ConfigPreparer#fillConfigAsync(Config, Executor)}.
+     *
+     * @param toFill
+     *         the config to be filled
+     * @param executor
+     *         which will fill the config
+     * @return a {@link CompletableFuture} providing the filled {@code Config}
+     */
+    public <T extends Config> CompletableFuture<T> fillConfigAsync(T toFill, Executor executor) {
+        return preparer.fillConfigAsync(toFill, executor);
+    }
+    
+    /**
+     * Fills the {@code Config} as far as possible like
+     * {@link ConfigPreparer#getStump(Config)}.
+     *
+     * @param base
+     *         the config to be filled as far as possible
+     * @return an possibly incomplete {@code Config}
+     */
+    public <T extends Config> T getStump(T base) {
+        return preparer.getStump(base);
+    }
+    
+    @Override
+    public String toString() {
+        return preparer.toString();
+    }
+}
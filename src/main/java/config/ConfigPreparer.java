@@ -1,22 +1,37 @@
 package config;
 
 import java.io.*;
-import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * This class is an alternative to {@code Properties}. While it holds all
@@ -52,31 +67,66 @@ public final class ConfigPreparer {
      * file.
      */
     private static final String ENCODING_ENTRY = "encoding";
+    /**
+     * Key of the directive which includes another file, resolved relative to
+     * the including one.
+     */
+    private static final String INCLUDE_ENTRY = "include";
     /** Standard encoding if no further information is given or found */
     private static final Charset STANDARD_ENCODING = StandardCharsets.UTF_8;
+    /** Prefix of the names of classpath resources in {@link SettingChange}s */
+    private static final String CLASSPATH_SOURCE_PREFIX = "classpath:";
     /** Location where config changes can be stored by default */
     private File usedFileName = new File(Config.STANDARD_FILE_NAME);
-    /** Holds the config settings and represents how they will stored */
-    private Map<String, String> settings = new HashMap<>();
-    /** Encoding that will be applied when reading the config file */
-    private Charset encoding = STANDARD_ENCODING;
     /**
-     * List of settings which where missing despite the
-     * {@link Setting#isOptional()} constraint
+     * Holds the config settings and represents how they will stored. Might
+     * share its content with derived {@code ConfigPreparer}s and filled
+     * {@code Config}s.
      */
-    private final List<Field> missingSettings = new ArrayList<>();
+    private SettingsOverlay settings = new SettingsOverlay();
     /**
-     * Maps {@link Field}s to the {@link Exception} message they caused when
-     * read
+     * The names of the settings beginning with the prefix of each
+     * {@code [section]} declared by a read source, see
+     * {@link #declareSection(String)}
      */
-    private final Map<Field, String> causedExeptions = new HashMap<>();
+    private Map<String, Set<String>> sections = new HashMap<>();
+    /** Whether the {@link #sections} are shared with a derived preparer and have to be copied before changes */
+    private boolean sectionsShared = false;
+    /**
+     * Whether {@link #sections} have been declared after settings with their
+     * prefix might have been added, so they are not used until all settings
+     * have been indexed again
+     */
+    private boolean sectionsIncomplete = false;
+    /** Encoding that will be applied when reading the config file */
+    private Charset encoding = STANDARD_ENCODING;
     /**
      * All converters than can be used to convert {@code Objects} to
      * {@code Strings} and back
      */
-    private final Map<Class<?>, SettingConverter> settingConverters = new HashMap<>();
+    private final ConverterRegistry settingConverters = new ConverterRegistry();
     /** Whether the values will be trimmed or not */
     private boolean trim = true;
+    /** Whether setting names and values will be canonicalized via the {@link StringPool} */
+    private boolean poolStrings = false;
+    /** Whether the settings will be frozen into {@link FrozenSettings} whenever they change */
+    private boolean freeze = false;
+    /** Emits the changes of the {@link #settings} */
+    private final SettingChangePublisher changePublisher = new SettingChangePublisher();
+    /** The settings last read from each {@link SettingsSource}, so settings it drops can be removed */
+    private final Map<SettingsSource, Map<String, String>> settingsOfSources = new HashMap<>();
+    /** Whether nested {@code Config}s will only be filled if there are settings with their prefix */
+    private boolean lazyNestedConfigs = false;
+    /** Whether filled {@code Config}s will journal their changes, see {@link #withJournal(boolean)} */
+    private boolean journal = false;
+    /** Whether journaled changes will be synced to the storage device */
+    private boolean syncJournal = false;
+    /** Whether converted values of cacheable {@link SettingConverter}s will be taken from the {@link ConvertedValueCache} */
+    private boolean cacheConversions = false;
+    /** Binds nested {@code Config}s and fields with custom converters concurrently, {@code null} if sequential */
+    private Executor parallelFill = null;
+    /** The {@link SettingConverter}s registered by each new {@code ConfigPreparer} */
+    private static final ConverterRegistry STANDARD_CONVERTERS = createStandardConverters();
     
     /**
      * Creates an empty {@code Config} which only has some standard
@@ -101,9 +151,9 @@ public final class ConfigPreparer {
      *         set due to another reason
      */
     public ConfigPreparer(File settingSource) throws IOException, IllegalStateException {
+        setStandardValues();
         addSettingsSource(settingSource);
         usedFileName = settingSource;
-        setStandardValues();
     }
     
     /**
@@ -123,9 +173,9 @@ public final class ConfigPreparer {
      *         set due to another reason
      */
     public ConfigPreparer(File settingSource, Charset encoding) throws IOException, IllegalStateException {
+        setStandardValues();
         addSettingsSource(settingSource, encoding);
         usedFileName = settingSource;
-        setStandardValues();
     }
     
     /**
@@ -141,8 +191,29 @@ public final class ConfigPreparer {
      *         set due to another reason
      */
     public ConfigPreparer(Map<String, String> settingSource) throws IllegalStateException {
-        addSettingsSource(settingSource);
         setStandardValues();
+        addSettingsSource(settingSource);
+    }
+    
+    /**
+     * Creates a {@code ConfigPreparer} with standard {@link SettingConverter}s
+     * and reads the specified files asynchronously via the
+     * {@link #addSettingsSourcesAsync(Executor, File...)} method. The first file
+     * serves as standard save location.
+     *
+     * @param executor
+     *         which will read and parse the files
+     * @param settingSources
+     *         the files containing settings in the form of
+     *         {@code ("name=value")}
+     * @return a {@link CompletableFuture} providing the {@code ConfigPreparer}
+     * once all files are read
+     */
+    public static CompletableFuture<ConfigPreparer> loadAsync(Executor executor, File... settingSources) {
+        return new ConfigPreparer().addSettingsSourcesAsync(executor, settingSources).thenApply(preparer -> {
+            if (settingSources.length > 0) preparer.usedFileName = settingSources[0];
+            return preparer;
+        });
     }
     
     /**
@@ -158,7 +229,7 @@ public final class ConfigPreparer {
      * @return the {@code Config Object} itself.
      */
     public ConfigPreparer registerConverters(Map<Class<?>, SettingConverter> converters) {
-        settingConverters.putAll(converters);
+        converters.forEach(settingConverters::register);
         return this;
     }
     
@@ -176,14 +247,35 @@ public final class ConfigPreparer {
      * @return the {@code Config Object} itself.
      */
     public ConfigPreparer registerConverter(Class<?> type, SettingConverter converter) {
-        settingConverters.put(type, converter);
+        settingConverters.register(type, converter);
+        return this;
+    }
+    
+    /**
+     * Registers a decoder of {@link Secret}s, e.g. one decrypting AES-encoded
+     * values. It is referenced by its name via {@link Setting#decoder()} or
+     * via a {@value Secret#ENCODED_PREFIX} prefix of a value. Decoders are
+     * only called when a {@code Secret} is revealed. {@link #fillConfig(Config)}
+     * must be invoked to take effect on the config.
+     *
+     * @param name
+     *         of the decoder
+     * @param decoder
+     *         converting an encoded value into the plain one, throwing an
+     *         {@link IllegalArgumentException} if it is no valid encoded value
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer registerDecoder(String name, Function<String, String> decoder) {
+        settingConverters.registerDecoder(name, decoder);
         return this;
     }
     
     /**
      * Loads the configuration from a file at the specified {@code Path}.
      * Attempts to find a key named {@value #ENCODING_ENTRY}. If there is any,
-     * the file will be reloaded with the encoding specified there.
+     * the file will be reloaded with the encoding specified there. If there is
+     * a journal of the file (see {@link #withJournal(boolean)}), it will be
+     * replayed afterwards.
      * {@link #fillConfig(Config)} must be invoked to take effect on the config.
      *
      * @param settingSource
@@ -194,17 +286,16 @@ public final class ConfigPreparer {
      *         while reading the file
      */
     public ConfigPreparer addSettingsSource(File settingSource) throws IOException {
-        readSettings(settingSource, STANDARD_ENCODING);
-        String currentEncoding = getSetting(ENCODING_ENTRY);
-        if (!currentEncoding.isEmpty() && !Charset.forName(currentEncoding).equals(STANDARD_ENCODING)) {
-            encoding = Charset.forName(currentEncoding);
-            readSettings(settingSource, Charset.forName(currentEncoding));
+        try (InputStream input = new FileInputStream(settingSource)) {
+            addSettingsSource(input, settingSource.toString(), settingSource.toPath());
         }
-        return this;
+        return replayJournal(settingSource, encoding);
     }
     
     /**
-     * Loads the configuration from a file at the specified {@code Path}.
+     * Loads the configuration from a file at the specified {@code Path}. If
+     * there is a journal of the file (see {@link #withJournal(boolean)}), it
+     * will be replayed afterwards.
      * {@link #fillConfig(Config)} must be invoked to take effect on the config.
      *
      * @param settingSource
@@ -217,10 +308,356 @@ public final class ConfigPreparer {
      *         while reading the file
      */
     public ConfigPreparer addSettingsSource(File settingSource, Charset encoding) throws IOException {
-        readSettings(settingSource, encoding);
+        try (InputStream input = new FileInputStream(settingSource)) {
+            putSettings(readSettings(input, encoding, IncludeContext.of(settingSource.toPath(), encoding)),
+                    settingSource.toString());
+        }
+        return replayJournal(settingSource, encoding);
+    }
+    
+    /**
+     * Loads the configuration from an {@link InputStream}, e.g. from
+     * {@code System.in}. Like {@link #addSettingsSource(File)}, it attempts to
+     * find a key named {@value #ENCODING_ENTRY} to determine the encoding, so
+     * the whole content is buffered first. The {@code InputStream} won't be
+     * closed. {@link #fillConfig(Config)} must be invoked to take effect on the
+     * config.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the {@code InputStream}
+     */
+    public ConfigPreparer addSettingsSource(InputStream settingSource) throws IOException {
+        return addSettingsSource(settingSource, SettingChange.STREAM_SOURCE, null);
+    }
+    
+    /**
+     * Loads the configuration from an {@link InputStream} with a known
+     * encoding. The content is parsed while it is read. The
+     * {@code InputStream} won't be closed. {@link #fillConfig(Config)} must be
+     * invoked to take effect on the config.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @param encoding
+     *         of the content
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the {@code InputStream}
+     */
+    public ConfigPreparer addSettingsSource(InputStream settingSource, Charset encoding) throws IOException {
+        putSettings(readSettings(settingSource, encoding, IncludeContext.of(null, encoding)),
+                SettingChange.STREAM_SOURCE);
         return this;
     }
     
+    /**
+     * Loads the configuration from a {@link Reader}. The content is parsed
+     * while it is read. The {@code Reader} won't be closed.
+     * {@link #fillConfig(Config)} must be invoked to take effect on the config.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the {@code Reader}
+     */
+    public ConfigPreparer addSettingsSource(Reader settingSource) throws IOException {
+        Map<String, String> read = new LinkedHashMap<>();
+        IncludeContext includes = IncludeContext.of(null, encoding);
+        PooledLineReader.readLines(settingSource, line -> lineToSetting(line, read, includes));
+        putSettings(read, SettingChange.STREAM_SOURCE);
+        return this;
+    }
+    
+    /**
+     * Loads the configuration from a {@link Reader} in another
+     * {@link SettingsFormat}, e.g. {@link SettingsFormat#JSON}. Nested
+     * structures become dotted setting names, so they can be bound to
+     * {@link NestedConfig}s. The {@code Reader} won't be closed.
+     * {@link #fillConfig(Config)} must be invoked to take effect on the config.
+     *
+     * @param settingSource
+     *         providing settings in the specified format
+     * @param format
+     *         of the content
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the {@code Reader} or if its content is malformed
+     */
+    public ConfigPreparer addSettingsSource(Reader settingSource, SettingsFormat format) throws IOException {
+        putSettings(readSettings(settingSource, format), SettingChange.STREAM_SOURCE);
+        return this;
+    }
+    
+    /**
+     * Loads the configuration from a file in another {@link SettingsFormat}
+     * like {@link #addSettingsSource(Reader, SettingsFormat)}, assuming the
+     * standard encoding. Unlike {@link #addSettingsSource(File)}, the file
+     * won't become the location used by {@link Config#store()}, since
+     * {@code Config}s are stored as {@code ("name=value")} lines.
+     * {@link #fillConfig(Config)} must be invoked to take effect on the config.
+     *
+     * @param settingSource
+     *         the file containing settings in the specified format
+     * @param format
+     *         of the file
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the file or if its content is malformed
+     */
+    public ConfigPreparer addSettingsSource(File settingSource, SettingsFormat format) throws IOException {
+        try (Reader reader = Files.newBufferedReader(settingSource.toPath(), STANDARD_ENCODING)) {
+            putSettings(readSettings(reader, format), settingSource.toString());
+        }
+        return this;
+    }
+    
+    /**
+     * Loads the configuration from a {@link ReadableByteChannel} like
+     * {@link #addSettingsSource(InputStream)}. The channel won't be closed.
+     * {@link #fillConfig(Config)} must be invoked to take effect on the config.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the channel
+     */
+    public ConfigPreparer addSettingsSource(ReadableByteChannel settingSource) throws IOException {
+        return addSettingsSource(Channels.newInputStream(settingSource), SettingChange.STREAM_SOURCE, null);
+    }
+    
+    /**
+     * Loads the configuration from a {@link ReadableByteChannel} like
+     * {@link #addSettingsSource(InputStream, Charset)}. The channel won't be
+     * closed. {@link #fillConfig(Config)} must be invoked to take effect on the
+     * config.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @param encoding
+     *         of the content
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         while reading the channel
+     */
+    public ConfigPreparer addSettingsSource(ReadableByteChannel settingSource, Charset encoding) throws IOException {
+        putSettings(readSettings(Channels.newInputStream(settingSource), encoding, IncludeContext.of(null, encoding)),
+                SettingChange.STREAM_SOURCE);
+        return this;
+    }
+    
+    /**
+     * Adds the settings published into a shared segment file by
+     * {@link #publishSettings(Path)}, usually by another process on the same
+     * host. The settings are read directly from the memory-mapped file, so
+     * they neither have to be parsed nor copied onto the heap as long as this
+     * {@code ConfigPreparer} holds no other settings. The settings won't change
+     * when the segment is published again, this method has to be called again
+     * to see them. {@link #fillConfig(Config)} must be invoked to take effect
+     * on the config.
+     *
+     * @param segment
+     *         the shared segment file
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         if the file cannot be read, is no segment file or holds no
+     *         settings yet
+     */
+    public ConfigPreparer addSharedSettingsSource(Path segment) throws IOException {
+        FrozenSettings shared = SharedSettingsSegment.attach(segment);
+        if (settings.isEmpty() && !changePublisher.hasSubscribers()) {
+            settings = new SettingsOverlay(shared);
+            indexSections(shared.keySet());
+        } else putSettings(shared, segment.toString());
+        return this;
+    }
+    
+    /**
+     * Publishes the current settings into a shared segment file, so other
+     * {@code ConfigPreparer}s, e.g. in other processes on the same host, can
+     * use them via {@link #addSharedSettingsSource(Path)} without parsing them
+     * again. The file will be created if it does not exist yet. Readers which
+     * are already attached keep seeing the settings they attached to.
+     *
+     * @param segment
+     *         the shared segment file
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         if the file cannot be written or is no segment file
+     */
+    public ConfigPreparer publishSettings(Path segment) throws IOException {
+        SharedSettingsSegment.publish(segment, settings);
+        return this;
+    }
+    
+    /**
+     * Loads the configuration from a resource on the classpath, e.g. a default
+     * config shipped inside a jar, like {@link #addSettingsSource(File)}. The
+     * resource is looked up by the context {@link ClassLoader} of the current
+     * thread, or by the one of this class if there is none.
+     * {@link #fillConfig(Config)} must be invoked to take effect on the config.
+     *
+     * @param resourceName
+     *         name of the resource, e.g. {@code "defaults/service.cfg"}
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         if the resource does not exist or cannot be read
+     */
+    public ConfigPreparer addClasspathSettingsSource(String resourceName) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) classLoader = ConfigPreparer.class.getClassLoader();
+        try (InputStream input = classLoader.getResourceAsStream(resourceName)) {
+            if (input == null) throw new FileNotFoundException("Resource " + resourceName + " not found");
+            return addSettingsSource(input, CLASSPATH_SOURCE_PREFIX + resourceName, null);
+        }
+    }
+    
+    /**
+     * Loads the configuration from a {@link SettingsSource}, e.g. an
+     * {@link HttpSettingsSource}. If the source did not change since it was
+     * read last, nothing happens. Otherwise, its new settings replace the
+     * ones it provided before: settings which are missing now are removed,
+     * unless other sources have changed them since. {@link #fillConfig(Config)}
+     * must be invoked to take effect on the config.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         if the source cannot be read
+     */
+    public ConfigPreparer addSettingsSource(SettingsSource settingSource) throws IOException {
+        readIfChanged(settingSource);
+        return this;
+    }
+    
+    /**
+     * Polls a {@link SettingsSource} periodically via the specified
+     * {@link ScheduledExecutorService}. Whenever the source has changed, its
+     * settings are added and the specified {@code Config}s are filled again,
+     * so the new values can be observed via {@link Config#changes()}. The
+     * delay between two polls is {@code interval} plus a random part of up to
+     * {@code jitter}, so many instances don't hit a remote source at the same
+     * time. Polling happens while holding the lock of this
+     * {@code ConfigPreparer}, so other threads using it must synchronize on it
+     * as well. Failing reads are retried with the next poll, see
+     * {@link #pollSettingsSource(SettingsSource, ScheduledExecutorService, Duration, Duration, Consumer, Config...)}
+     * to observe them.
+     *
+     * @param settingSource
+     *         to be polled
+     * @param scheduler
+     *         running the polls
+     * @param interval
+     *         minimum delay between two polls
+     * @param jitter
+     *         maximum random delay added to the interval
+     * @param toRefill
+     *         the {@code Config}s to be filled again on changes
+     * @return a {@link CompletableFuture} which stops the polling when it is
+     * cancelled. It completes exceptionally if a {@code Config} could not be
+     * filled again or the scheduler rejects the next poll, which stops the
+     * polling as well.
+     */
+    public CompletableFuture<Void> pollSettingsSource(SettingsSource settingSource,
+            ScheduledExecutorService scheduler, Duration interval, Duration jitter, Config... toRefill) {
+        return pollSettingsSource(settingSource, scheduler, interval, jitter, failure -> {
+        }, toRefill);
+    }
+    
+    /**
+     * Polls a {@link SettingsSource} periodically like
+     * {@link #pollSettingsSource(SettingsSource, ScheduledExecutorService, Duration, Duration, Config...)},
+     * but passes each failed read to the specified handler, e.g. to log it or
+     * to count consecutive failures. Failing reads are still retried with the
+     * next poll, unless the handler throws an unchecked exception, which
+     * stops the polling and completes the returned {@link CompletableFuture}
+     * exceptionally with it.
+     *
+     * @param settingSource
+     *         to be polled
+     * @param scheduler
+     *         running the polls
+     * @param interval
+     *         minimum delay between two polls
+     * @param jitter
+     *         maximum random delay added to the interval
+     * @param failureHandler
+     *         called with the exception of each failed read, by the thread
+     *         of the poll
+     * @param toRefill
+     *         the {@code Config}s to be filled again on changes
+     * @return a {@link CompletableFuture} which stops the polling when it is
+     * cancelled. It completes exceptionally if a {@code Config} could not be
+     * filled again, the failure handler throws or the scheduler rejects the
+     * next poll, which stops the polling as well.
+     */
+    public CompletableFuture<Void> pollSettingsSource(SettingsSource settingSource,
+            ScheduledExecutorService scheduler, Duration interval, Duration jitter,
+            Consumer<? super IOException> failureHandler, Config... toRefill) {
+        CompletableFuture<Void> polling = new CompletableFuture<>();
+        schedulePoll(settingSource, scheduler, interval, jitter, failureHandler, toRefill, polling);
+        return polling;
+    }
+    
+    /**
+     * Loads the configuration from the specified files like
+     * {@link #addSettingsSource(File)}, but reads and parses all of them
+     * concurrently via the specified {@link Executor}. Settings of later files
+     * override settings of earlier ones, just as if they were added one after
+     * another. The {@code ConfigPreparer} must not be
+     * used until the returned {@link CompletableFuture} is completed.
+     *
+     * @param executor
+     *         which will read and parse the files
+     * @param settingSources
+     *         the files containing settings in the form of
+     *         {@code ("name=value")}
+     * @return a {@link CompletableFuture} providing the {@code Config Object}
+     * itself once all files are read. If any file could not be read, it
+     * completes exceptionally with a single {@link IOException} which holds
+     * the failures of all other files as suppressed exceptions.
+     */
+    public CompletableFuture<ConfigPreparer> addSettingsSourcesAsync(Executor executor, File... settingSources) {
+        List<CompletableFuture<ConfigPreparer>> reads = new ArrayList<>();
+        for (File settingSource : settingSources) {
+            reads.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return withoutSettings().addSettingsSource(settingSource);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).handle((ignored, anyFailure) -> {
+            List<ConfigPreparer> readSources = new ArrayList<>();
+            IOException failure = null;
+            for (int i = 0; i < reads.size(); i++) {
+                try {
+                    readSources.add(reads.get(i).join());
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                    IOException sourceFailure = cause instanceof IOException ? (IOException) cause : new IOException(
+                            "Could not read " + settingSources[i], cause);
+                    if (failure == null) failure = sourceFailure;
+                    else failure.addSuppressed(sourceFailure);
+                }
+            }
+            if (failure != null) throw new CompletionException(failure);
+            for (int i = 0; i < readSources.size(); i++) {
+                ConfigPreparer read = readSources.get(i);
+                read.sections.keySet().forEach(this::declareSection);
+                putSettings(read.settings, settingSources[i].toString());
+                if (!read.encoding.equals(STANDARD_ENCODING)) encoding = read.encoding;
+            }
+            return this;
+        });
+    }
+    
     /**
      * Creates a configuration based on a {@link Properties} object. Not
      * recommanded since it converts the {@code Key Object} plainly with
@@ -235,7 +672,7 @@ public final class ConfigPreparer {
     public ConfigPreparer addSettingsSource(Properties settingSource) {
         Map<String, String> settingsMap = new HashMap<>();
         settingSource.forEach(
-                (key, value) -> settingsMap.put(key.toString(), getConverter(value.getClass()).toString.apply(value)));
+                (key, value) -> settingsMap.put(key.toString(), settingConverters.toString(value)));
         addSettingsSource(settingsMap);
         return this;
     }
@@ -254,9 +691,15 @@ public final class ConfigPreparer {
      * @return the {@code Config Object} itself.
      */
     public ConfigPreparer addSettingsSource(String settingName, Object settingValueToChange) {
-        HashMap<String, Object> update = new HashMap<>();
-        update.put(settingName, settingValueToChange);
-        addSettingsSource(update);
+        String value;
+        try {
+            value = settingValueToChange == null ? "" : pooled(settingConverters.toString(settingValueToChange));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "The following settings are could not be converted to String:: " + settingName + "(" +
+                    settingValueToChange.getClass().getName() + ")");
+        }
+        putSetting(pooled(settingName), value, SettingChange.MAP_SOURCE);
         return this;
     }
     
@@ -272,10 +715,59 @@ public final class ConfigPreparer {
      * @return the {@code Config Object} itself.
      */
     public ConfigPreparer addSettingsSource(Map<String, ?> settingSource) {
-        settings.putAll(toStringStringMap(settingSource));
+        putSettings(toStringStringMap(settingSource), SettingChange.MAP_SOURCE);
         return this;
     }
     
+    /**
+     * Creates a new {@code ConfigPreparer} based on the settings,
+     * {@link SettingConverter}s and options of this one. The settings are
+     * shared structurally, so the derived {@code ConfigPreparer} and the
+     * {@code Config}s filled by it only hold the settings changed afterwards,
+     * e.g. per-tenant overrides added via {@link #addSettingsSource(Map)}.
+     * Changes to either {@code ConfigPreparer} won't affect the other one.
+     *
+     * @return the derived {@code ConfigPreparer}
+     */
+    public ConfigPreparer derive() {
+        ConfigPreparer derived = withoutSettings();
+        derived.settings = settings.share();
+        // the sections are copied once either preparer changes them
+        sectionsShared = !sections.isEmpty();
+        derived.sections = sections;
+        derived.sectionsShared = sectionsShared;
+        derived.sectionsIncomplete = sectionsIncomplete;
+        derived.encoding = encoding;
+        derived.usedFileName = usedFileName;
+        return derived;
+    }
+    
+    /**
+     * Returns a {@link Flow.Publisher} which emits a batch of
+     * {@link SettingChange}s whenever settings are added to this
+     * {@code ConfigPreparer}. Settings which were overridden by an equal
+     * value are not part of the batches.
+     *
+     * @return the {@code Flow.Publisher} of all changes
+     */
+    public Flow.Publisher<List<SettingChange>> changes() {
+        return changes("");
+    }
+    
+    /**
+     * Returns a {@link Flow.Publisher} like {@link #changes()}, but restricted to
+     * the settings beginning with the specified prefix, e.g. the prefix of a
+     * {@link NestedConfig}. The prefix is removed from the emitted keys, and
+     * subscribers won't be notified about batches without matching settings.
+     *
+     * @param prefix
+     *         of the settings of interest, e.g. "ftp."
+     * @return the {@code Flow.Publisher} of the matching changes
+     */
+    public Flow.Publisher<List<SettingChange>> changes(String prefix) {
+        return changePublisher.publisher(prefix);
+    }
+    
     /**
      * Sets whether leading and trailing spacings will be stripped from the
      * value or not.
@@ -290,6 +782,140 @@ public final class ConfigPreparer {
         return this;
     }
     
+    /**
+     * Sets whether setting names and values will be canonicalized via the
+     * JVM-wide {@link StringPool}, so equal {@code String}s are shared across
+     * all {@code ConfigPreparer}s and {@code Config}s. Affects only settings
+     * added afterwards.
+     *
+     * @param poolStrings
+     *         {@code true} if the {@code String}s will be pooled,
+     *         {@code false} otherwise
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withStringPooling(boolean poolStrings) {
+        this.poolStrings = poolStrings;
+        return this;
+    }
+    
+    /**
+     * Sets whether the settings will be frozen into a compact, read-only
+     * representation before {@code Config}s are filled. Frozen settings need
+     * a fraction of the heap of regular ones and are shared by all filled
+     * {@code Config}s, but each lookup has to search and decode the setting.
+     * Useful for very large configs, e.g. with thousands of feature flags.
+     * The settings are frozen right away, and again each time settings are
+     * added afterwards, so large sets of settings are best added at once,
+     * e.g. via {@link #addSettingsSource(Map)}. Filling {@code Config}s never
+     * modifies the frozen settings.
+     *
+     * @param freeze
+     *         {@code true} if the settings will be frozen, {@code false}
+     *         otherwise
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withFrozenSettings(boolean freeze) {
+        this.freeze = freeze;
+        if (freeze) freeze();
+        return this;
+    }
+    
+    /**
+     * Sets whether the values converted by cacheable {@link SettingConverter}s
+     * (e.g. the ones for {@code Class}, {@code URI} or {@code Path}) will be
+     * cached JVM-wide, keyed by the target type, the converter and the
+     * {@code String} representation. Repeated fills, e.g. of many nested or
+     * per-tenant {@code Config}s, then share the already converted
+     * {@code Object}s instead of converting them again. Only converters
+     * producing immutable values should be declared as cacheable.
+     *
+     * @param cacheConversions
+     *         {@code true} if converted values will be cached,
+     *         {@code false} otherwise
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withConversionCache(boolean cacheConversions) {
+        this.cacheConversions = cacheConversions;
+        return this;
+    }
+    
+    /**
+     * Sets whether nested {@code Config}s (see {@link NestedConfig}) will only
+     * be created and filled if there is at least one setting beginning with
+     * their prefix. Otherwise, the field keeps its initial value, usually
+     * {@code null}, and missing non-optional settings of the nested
+     * {@code Config} are not reported. Useful for large trees of nested
+     * {@code Config}s of which most are unused in a deployment.
+     *
+     * @param lazyNestedConfigs
+     *         {@code true} if only nested {@code Config}s with settings will
+     *         be filled, {@code false} otherwise
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withLazyNestedConfigs(boolean lazyNestedConfigs) {
+        this.lazyNestedConfigs = lazyNestedConfigs;
+        return this;
+    }
+    
+    /**
+     * Sets an {@link Executor} which binds independent parts of a
+     * {@code Config} concurrently while filling it: nested {@code Config}s (see
+     * {@link NestedConfig}) and fields converted by custom
+     * {@link SettingConverter}s (i.e. not by the standard ones), including
+     * arrays and collections whose elements are converted by them. Useful for
+     * large trees of nested {@code Config}s or slow converters, e.g. ones
+     * resolving values remotely. Cheap fields are still bound by the calling
+     * thread. Problems are reported in the same order as in a sequential
+     * fill, and all values are visible to the calling thread once
+     * {@link #fillConfig(Config)} returns. Nested {@code Config}s fill their
+     * own fields sequentially, so tasks never wait for other tasks.
+     *
+     * @param parallelFill
+     *         the {@code Executor} to be used, e.g.
+     *         {@link java.util.concurrent.ForkJoinPool#commonPool()}, or
+     *         {@code null} to fill sequentially (default)
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withParallelFill(Executor parallelFill) {
+        this.parallelFill = parallelFill;
+        return this;
+    }
+    
+    /**
+     * Sets whether filled {@code Config}s will store their changes into a
+     * journal. Instead of rewriting the whole config file,
+     * {@link Config#store()} then just appends the changed settings to a
+     * journal file next to it (named like the config file plus
+     * {@value Config#JOURNAL_SUFFIX}). Once the journal grows larger than the
+     * config file, it gets folded into the config file. Journals are always
+     * replayed when a config file is loaded, so no stored change gets lost.
+     *
+     * @param journal
+     *         {@code true} if changes will be journaled, {@code false}
+     *         otherwise
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withJournal(boolean journal) {
+        this.journal = journal;
+        return this;
+    }
+    
+    /**
+     * Sets whether journaled changes (see {@link #withJournal(boolean)}) will
+     * be synced to the storage device before {@link Config#store()} returns,
+     * so they survive a crash of the operating system as well. Syncing makes
+     * storing considerably slower.
+     *
+     * @param syncJournal
+     *         {@code true} if the journal will be synced, {@code false}
+     *         otherwise
+     * @return the {@code Config Object} itself.
+     */
+    public ConfigPreparer withJournalSync(boolean syncJournal) {
+        this.syncJournal = syncJournal;
+        return this;
+    }
+    
     /**
      * Sets the {@code String} that will indicate comment at the beginning of a
      * line.
@@ -305,7 +931,11 @@ public final class ConfigPreparer {
     
     /**
      * Refreshes the {@code Config} based on all added {@code Setting Sources}
-     * and added {@link SettingConverter}s.
+     * and added {@link SettingConverter}s. The settings of this
+     * {@code ConfigPreparer} won't be modified, so several {@code Config}s
+     * might be filled at the same time, as long as the {@code ConfigPreparer}
+     * itself isn't modified meanwhile. See {@link #build()} for a
+     * {@code ConfigPreparer} which can't be modified at all.
      *
      * @return the {@code Config Object} itself.
      * @throws IllegalStateException
@@ -313,14 +943,57 @@ public final class ConfigPreparer {
      *         set due to another reason
      */
     public <T extends Config> T fillConfig(T toFill) throws IllegalStateException {
-        updateViaAnnotation(toFill);
-        toFill.setEncoding(encoding);
-        toFill.setUsedFileName(usedFileName);
-        toFill.setSettingConverters(settingConverters);
-        toFill.setSettings(settings);
+        FillReport report = new FillReport();
+        Map<String, String> frozen = freeze ? settings.unchangedBase() : null;
+        try {
+            updateViaAnnotation(toFill, report);
+        } finally {
+            // even incomplete configs (see getStump) must be storable
+            toFill.setEncoding(encoding);
+            toFill.setUsedFileName(usedFileName);
+            toFill.setJournal(journal, syncJournal);
+            toFill.setSettingConverters(settingConverters);
+            if (frozen instanceof FrozenSettings && report.defaults.isEmpty()) toFill.setSettings(frozen);
+            else {
+                SettingsOverlay filledSettings = settings.share();
+                filledSettings.putAll(report.defaults);
+                toFill.setSettings(filledSettings);
+            }
+        }
         return toFill;
     }
     
+    /**
+     * Creates an immutable {@link ConfigFactory} based on the current settings,
+     * {@link SettingConverter}s and options of this {@code ConfigPreparer}. It
+     * can fill {@code Config}s from several threads at the same time, and
+     * later changes of this {@code ConfigPreparer} won't affect it. The
+     * settings are shared structurally like in {@link #derive()}.
+     *
+     * @return the {@code ConfigFactory}
+     */
+    public ConfigFactory build() {
+        return new ConfigFactory(derive());
+    }
+    
+    /**
+     * Refreshes the {@code Config} like {@link #fillConfig(Config)}, but does the
+     * binding on the specified {@link Executor}. The {@code ConfigPreparer} must
+     * not be modified until the returned {@link CompletableFuture} is completed.
+     *
+     * @param toFill
+     *         the config to be filled
+     * @param executor
+     *         which will fill the config
+     * @return a {@link CompletableFuture} providing the filled {@code Config}. If
+     * non-optional settings are missing or fields could not be set, it
+     * completes exceptionally with a single {@link IllegalStateException}
+     * listing all of them.
+     */
+    public <T extends Config> CompletableFuture<T> fillConfigAsync(T toFill, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> fillConfig(toFill), executor);
+    }
+    
     /**
      * Creates a {@code Config} that might be incomplete (i.e. fields could not
      * be assigned or non-optional fields are empty). Because of this the
@@ -389,6 +1062,54 @@ public final class ConfigPreparer {
         return filterMapByPrefix(prefix);
     }
     
+    /**
+     * Compiles all settings beginning with the specified prefix into
+     * {@link FeatureFlags}, see {@link Config#featureFlags(String)}.
+     *
+     * @param prefix
+     *         of the flags, e.g. "feature."
+     * @return the compiled flags
+     * @throws IllegalStateException
+     *         if a setting beginning with the prefix is no valid
+     *         {@code boolean}
+     */
+    public FeatureFlags featureFlags(String prefix) throws IllegalStateException {
+        return new FeatureFlags(filterMapByPrefix(prefix));
+    }
+    
+    /**
+     * Creates a new {@code ConfigPreparer} with the same
+     * {@link SettingConverter}s and options like this one, but without any
+     * settings.
+     *
+     * @return the new {@code ConfigPreparer}
+     */
+    private ConfigPreparer withoutSettings() {
+        ConfigPreparer copy = new ConfigPreparer();
+        copy.settingConverters.registerAll(settingConverters);
+        copy.commentDesignator = commentDesignator;
+        copy.trim = trim;
+        copy.poolStrings = poolStrings;
+        copy.freeze = freeze;
+        copy.cacheConversions = cacheConversions;
+        copy.journal = journal;
+        copy.syncJournal = syncJournal;
+        copy.lazyNestedConfigs = lazyNestedConfigs;
+        copy.parallelFill = parallelFill;
+        return copy;
+    }
+    
+    /**
+     * Freezes the settings into {@link FrozenSettings}, unless they are frozen
+     * already and haven't been changed since. Called whenever the settings
+     * change while {@link #freeze} is set, never while filling a
+     * {@code Config}.
+     */
+    private void freeze() {
+        if (settings.unchangedBase() instanceof FrozenSettings) return;
+        settings = new SettingsOverlay(FrozenSettings.of(settings));
+    }
+    
     /**
      * Sets standard values for the {@code Config}.
      */
@@ -413,106 +1134,536 @@ public final class ConfigPreparer {
     /**
      * Registers the some standard {@link SettingConverter}s
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     private void setStandardConverters() {
-        registerConverter(Integer.class, new SettingConverter(Object::toString, Integer::parseInt));
-        registerConverter(int.class, new SettingConverter(Object::toString, Integer::parseInt));
-        registerConverter(Long.class, new SettingConverter(Object::toString, Long::parseLong));
-        registerConverter(long.class, new SettingConverter(Object::toString, Long::parseLong));
-        registerConverter(Float.class, new SettingConverter(Object::toString, Float::parseFloat));
-        registerConverter(float.class, new SettingConverter(Object::toString, Float::parseFloat));
-        registerConverter(Double.class, new SettingConverter(Object::toString, Double::parseDouble));
-        registerConverter(double.class, new SettingConverter(Object::toString, Double::parseDouble));
-        registerConverter(String.class, new SettingConverter(Object::toString, String::toString));
-        registerConverter(List.class, new SettingConverter(list -> String.join(",", ((Collection<String>) list)),
-                string -> List.of(string.split(","))));
-        registerConverter(Array.class, new SettingConverter(array -> Stream.of(array)
-                                                                           .map(Object::toString)
-                                                                           .collect(Collectors.joining(",")),
-                array -> array.split(",")));  // modifiable, but better than nothing
-        registerConverter(File.class, new SettingConverter(Object::toString, File::new));
-        registerConverter(Path.class, new SettingConverter(Object::toString, Paths::get));
-        registerConverter(Class.class,
-                new SettingConverter(clazz -> ((Class) clazz).getName(), ConfigUtils::createClass));
-        registerConverter(URI.class, new SettingConverter(Object::toString, ConfigUtils::createURI));
-        registerConverter(URL.class, new SettingConverter(Object::toString, ConfigUtils::createURL));
+        settingConverters.registerAll(STANDARD_CONVERTERS);
     }
     
     /**
-     * Loads the configuration from a file at the specified {@code Path}.
+     * Creates the standard {@link SettingConverter}s. They are stateless, so
+     * they are shared by all {@code ConfigPreparer}s, which allows the
+     * {@link ConvertedValueCache} to share their results as well.
      *
-     * @param pathToConfigFile
-     *         the location of the config file
-     * @param encoding
-     *         of the config file
+     * @return the standard {@code SettingConverter}s
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ConverterRegistry createStandardConverters() {
+        ConverterRegistry converters = new ConverterRegistry();
+        converters.register(Integer.class, new SettingConverter(Object::toString, Integer::parseInt));
+        converters.register(int.class, new SettingConverter(Object::toString, Integer::parseInt));
+        converters.register(Long.class, new SettingConverter(Object::toString, Long::parseLong));
+        converters.register(long.class, new SettingConverter(Object::toString, Long::parseLong));
+        converters.register(Float.class, new SettingConverter(Object::toString, Float::parseFloat));
+        converters.register(float.class, new SettingConverter(Object::toString, Float::parseFloat));
+        converters.register(Double.class, new SettingConverter(Object::toString, Double::parseDouble));
+        converters.register(double.class, new SettingConverter(Object::toString, Double::parseDouble));
+        converters.register(Boolean.class, new SettingConverter(Object::toString, ConfigUtils::parseBoolean));
+        converters.register(boolean.class, new SettingConverter(Object::toString, ConfigUtils::parseBoolean));
+        converters.register(String.class, new SettingConverter(Object::toString, String::toString));
+        converters.register(Collection.class, new CollectionConverter(List.class));
+        converters.register(List.class, new CollectionConverter(List.class));
+        converters.register(Set.class, new CollectionConverter(Set.class));
+        converters.register(Map.class, new CollectionConverter(Map.class));
+        converters.register(Enum.class, new EnumConverter());
+        converters.register(EnumSet.class, new EnumConverter());
+        converters.register(Duration.class, new SettingConverter(duration -> UnitParser.formatDuration(
+                (Duration) duration), UnitParser::parseDuration, true));
+        converters.register(DataSize.class, new SettingConverter(Object::toString, DataSize::parse, true));
+        converters.register(File.class, new SettingConverter(Object::toString, File::new, true));
+        converters.register(Path.class, new SettingConverter(Object::toString, Paths::get, true));
+        converters.register(Class.class,
+                new SettingConverter(clazz -> ((Class) clazz).getName(), ConfigUtils::createClass, true));
+        converters.register(URI.class, new SettingConverter(Object::toString, ConfigUtils::createURI, true));
+        converters.register(URL.class, new SettingConverter(Object::toString, ConfigUtils::createURL, true));
+        // values are converted to Secrets via ConverterRegistry#toSecret, also as elements, to apply the decoders
+        converters.register(Secret.class, new SettingConverter(secret -> ((Secret) secret).stored(), Secret::of));
+        converters.registerDecoder("base64",
+                encoded -> new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8));
+        return converters;
+    }
+    
+    /**
+     * Adds the specified settings and emits the changes to the subscribers of
+     * {@link #changes()}.
+     *
+     * @param toPut
+     *         the settings to be added
+     * @param source
+     *         where the settings came from
+     */
+    private void putSettings(Map<String, String> toPut, String source) {
+        if (toPut.size() == 1) {
+            Map.Entry<String, String> setting = toPut.entrySet().iterator().next();
+            putSetting(setting.getKey(), setting.getValue(), source);
+            return;
+        }
+        if (!changePublisher.hasSubscribers()) {
+            settings.putAll(toPut);
+            indexSections(toPut.keySet());
+            if (freeze) freeze();
+            return;
+        }
+        List<SettingChange> changes = new ArrayList<>();
+        toPut.forEach((key, value) -> {
+            String previous = settings.put(key, value);
+            if (!Objects.equals(previous, value)) changes.add(new SettingChange(key, previous, value, source));
+        });
+        indexSections(toPut.keySet());
+        if (freeze) freeze();
+        changePublisher.publish(changes);
+    }
+    
+    /**
+     * Adds a single setting and emits its change to the subscribers of
+     * {@link #changes()}, without allocating any intermediate collections if
+     * there are no subscribers.
+     *
+     * @param key
+     *         the name of the setting
+     * @param value
+     *         of the setting
+     * @param source
+     *         describing where the setting came from
+     */
+    private void putSetting(String key, String value, String source) {
+        String previous = settings.put(key, value);
+        if (!sections.isEmpty()) indexSections(Set.of(key));
+        if (freeze) freeze();
+        if (!Objects.equals(previous, value) && changePublisher.hasSubscribers()) {
+            changePublisher.publish(List.of(new SettingChange(key, previous, value, source)));
+        }
+    }
+    
+    /**
+     * Declares a {@code [section]}, so the names of the settings beginning
+     * with its prefix will be tracked from now on and
+     * {@link #filterMapByPrefix(String)} doesn't have to scan all settings for
+     * it. If there are settings already, they are indexed once together with
+     * the next added ones, so declaring many sections doesn't scan the
+     * settings for each of them.
+     *
+     * @param prefix
+     *         of the section, e.g. {@code "service.db."}
+     */
+    private void declareSection(String prefix) {
+        if (sections.containsKey(prefix)) return;
+        ownSections();
+        sections.put(prefix, new HashSet<>());
+        if (!settings.isEmpty()) sectionsIncomplete = true;
+    }
+    
+    /**
+     * Adds the names of added settings to the declared {@code [section]}s
+     * they belong to. If the sections are incomplete, all settings are
+     * indexed instead.
+     *
+     * @param keys
+     *         the names of the added settings
+     */
+    private void indexSections(Set<String> keys) {
+        if (sections.isEmpty()) return;
+        ownSections();
+        if (sectionsIncomplete) {
+            keys = settings.keySet();
+            sectionsIncomplete = false;
+        }
+        for (String key : keys) {
+            // section prefixes end with a dot, so only the prefixes of the key up to its dots have to be looked up
+            for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', dot + 1)) {
+                Set<String> sectionKeys = sections.get(key.substring(0, dot + 1));
+                if (sectionKeys != null) sectionKeys.add(key);
+            }
+        }
+    }
+    
+    /**
+     * Copies the {@link #sections} if they are shared with a derived
+     * preparer, so they can be changed.
+     */
+    private void ownSections() {
+        if (!sectionsShared) return;
+        Map<String, Set<String>> own = new HashMap<>();
+        sections.forEach((section, keys) -> own.put(section, new HashSet<>(keys)));
+        sections = own;
+        sectionsShared = false;
+    }
+    
+    /**
+     * Loads the configuration from an {@link InputStream} whose content is
+     * buffered, so it can be parsed a second time if a key named
+     * {@value #ENCODING_ENTRY} specifies another encoding than the standard
+     * one.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @param sourceName
+     *         describing the source for {@link SettingChange}s
+     * @param origin
+     *         the read file, or {@code null} if the source is no file
+     * @return the {@code Config Object} itself.
      * @throws IOException
-     *         if reading the file fails
+     *         while reading the {@code InputStream}
+     */
+    private ConfigPreparer addSettingsSource(InputStream settingSource, String sourceName, Path origin)
+            throws IOException {
+        putSettings(readDetectingEncoding(settingSource, origin), sourceName);
+        return this;
+    }
+    
+    /**
+     * Reads the settings of an {@code InputStream}, whose encoding is
+     * determined by the {@value #ENCODING_ENTRY} setting. The encoding of this
+     * {@code ConfigPreparer} is changed accordingly.
+     *
+     * @param settingSource
+     *         providing settings in the form of {@code ("name=value")}
+     * @param origin
+     *         the read file, or {@code null} if the source is no file
+     * @return the read settings
+     * @throws IOException
+     *         while reading the {@code InputStream}
+     */
+    private Map<String, String> readDetectingEncoding(InputStream settingSource, Path origin) throws IOException {
+        return PooledLineReader.readFully(settingSource, (content, length) -> {
+            // included files are only read once the encoding is known, so they aren't parsed twice
+            IncludeContext probe = IncludeContext.of(origin, STANDARD_ENCODING);
+            probe.resolveIncludes = false;
+            Map<String, String> readWithStandardEncoding = readSettings(content, length, STANDARD_ENCODING, probe);
+            String currentEncoding = readWithStandardEncoding.containsKey(ENCODING_ENTRY) ?
+                                     readWithStandardEncoding.get(ENCODING_ENTRY) : getSetting(ENCODING_ENTRY);
+            if (!currentEncoding.isEmpty() && !Charset.forName(currentEncoding).equals(STANDARD_ENCODING)) {
+                encoding = Charset.forName(currentEncoding);
+                return readSettings(content, length, encoding, IncludeContext.of(origin, encoding));
+            }
+            if (probe.skippedIncludes) return readSettings(content, length, STANDARD_ENCODING,
+                    IncludeContext.of(origin, STANDARD_ENCODING));
+            return readWithStandardEncoding;
+        });
+    }
+    
+    /**
+     * Adds the settings of a {@link SettingsSource} if it changed. The content
+     * is parsed while it is read if the source knows its encoding, otherwise
+     * it is buffered to determine the encoding like for files.
+     *
+     * @return {@code true} if the source changed, {@code false} otherwise
+     */
+    private boolean readIfChanged(SettingsSource settingSource) throws IOException {
+        return settingSource.readIfChanged((content, contentEncoding) -> {
+            Map<String, String> read = contentEncoding == null ? readDetectingEncoding(content, null) :
+                                       readSettings(content, contentEncoding, IncludeContext.of(null, contentEncoding));
+            Map<String, String> previous = settingsOfSources.put(settingSource, read);
+            if (previous != null) removeDroppedSettings(previous, read, settingSource.name());
+            putSettings(read, settingSource.name());
+        });
+    }
+    
+    /**
+     * Removes the settings a source provided before but doesn't provide
+     * anymore, and emits their removal to the subscribers of
+     * {@link #changes()}. Settings whose values differ from the ones the
+     * source provided have been changed by others, so they are kept.
+     *
+     * @param previous
+     *         the settings the source provided before
+     * @param current
+     *         the settings the source provides now
+     * @param source
+     *         describing the source
      */
-    private void readSettings(File pathToConfigFile, Charset encoding) throws IOException {
-        // Stream<String> lines = Files.lines(pathToConfigFile, encoding)) can't
-        // handle wrong charSet, so here a lenghty version
-        try (BufferedReader fileReader = new BufferedReader(
-                new InputStreamReader(new FileInputStream(pathToConfigFile), encoding))) {
-            String line;
-            while ((line = fileReader.readLine()) != null) {
-                // line=line.replace("\r", ""));
-                lineToSetting(line);
+    private void removeDroppedSettings(Map<String, String> previous, Map<String, String> current, String source) {
+        List<SettingChange> changes = new ArrayList<>();
+        previous.forEach((key, value) -> {
+            if (!current.containsKey(key) && value.equals(settings.get(key))) {
+                settings.remove(key);
+                changes.add(new SettingChange(key, value, null, source));
             }
+        });
+        if (changes.isEmpty()) return;
+        if (freeze) freeze();
+        if (changePublisher.hasSubscribers()) changePublisher.publish(changes);
+    }
+    
+    /**
+     * Schedules the next poll of
+     * {@link #pollSettingsSource(SettingsSource, ScheduledExecutorService, Duration, Duration, Consumer, Config...)}.
+     */
+    private void schedulePoll(SettingsSource settingSource, ScheduledExecutorService scheduler, Duration interval,
+            Duration jitter, Consumer<? super IOException> failureHandler, Config[] toRefill,
+            CompletableFuture<Void> polling) {
+        long delay = interval.toNanos() + (jitter.isZero() ? 0 : ThreadLocalRandom.current()
+                                                                                  .nextLong(jitter.toNanos() + 1));
+        try {
+            scheduler.schedule(() -> {
+                if (polling.isDone()) return;
+                try {
+                    try {
+                        synchronized (this) {
+                            if (readIfChanged(settingSource)) for (Config config : toRefill) fillConfig(config);
+                        }
+                    } catch (IOException e) {
+                        // the source might be unavailable for a moment, so it's polled again unless the handler objects
+                        failureHandler.accept(e);
+                    }
+                } catch (RuntimeException e) {
+                    polling.completeExceptionally(e);
+                    return;
+                }
+                schedulePoll(settingSource, scheduler, interval, jitter, failureHandler, toRefill, polling);
+            }, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            polling.completeExceptionally(e);
         }
     }
     
+    /**
+     * Replays the journal of a config file, if there is any. An incomplete
+     * last record, e.g. due to a crash while it was written, is ignored.
+     *
+     * @param settingSource
+     *         the config file
+     * @param encoding
+     *         of the journal
+     * @return the {@code Config Object} itself.
+     * @throws IOException
+     *         if reading the journal fails
+     */
+    private ConfigPreparer replayJournal(File settingSource, Charset encoding) throws IOException {
+        Path journalFile = Config.journalOf(settingSource).toPath();
+        if (!Files.exists(journalFile)) return this;
+        byte[] content = Files.readAllBytes(journalFile);
+        int length = content.length;
+        while (length > 0 && content[length - 1] != '\n') length--;
+        putSettings(readSettings(content, length, encoding, IncludeContext.of(settingSource.toPath(), encoding)),
+                journalFile.toString());
+        return this;
+    }
+    
+    /**
+     * Parses the settings from an {@link InputStream} while reading it.
+     *
+     * @param settingSource
+     *         the stream to be read
+     * @param encoding
+     *         of the content
+     * @param includes
+     *         resolving the included files
+     * @return the read settings in the order of their appearance
+     * @throws IOException
+     *         if reading the stream or an included file fails
+     */
+    private Map<String, String> readSettings(InputStream settingSource, Charset encoding, IncludeContext includes)
+            throws IOException {
+        Map<String, String> read = new LinkedHashMap<>();
+        PooledLineReader.readLines(settingSource, encoding, line -> lineToSetting(line, read, includes));
+        return read;
+    }
+    
+    /**
+     * Parses the settings from already loaded content.
+     *
+     * @param content
+     *         holding the content
+     * @param length
+     *         of the content
+     * @param encoding
+     *         of the content
+     * @param includes
+     *         resolving the included files
+     * @return the read settings in the order of their appearance
+     * @throws IOException
+     *         if parsing the content or reading an included file fails
+     */
+    private Map<String, String> readSettings(byte[] content, int length, Charset encoding, IncludeContext includes)
+            throws IOException {
+        Map<String, String> read = new LinkedHashMap<>();
+        PooledLineReader.readLines(content, length, encoding, line -> lineToSetting(line, read, includes));
+        return read;
+    }
+    
+    /**
+     * Parses the settings from a {@link Reader} in another
+     * {@link SettingsFormat}.
+     *
+     * @param settingSource
+     *         the reader to be read
+     * @param format
+     *         of the content
+     * @return the read settings in the order of their appearance
+     * @throws IOException
+     *         if reading fails or the content is malformed
+     */
+    private Map<String, String> readSettings(Reader settingSource, SettingsFormat format) throws IOException {
+        Map<String, String> read = new LinkedHashMap<>();
+        format.parse(settingSource, (key, value) -> read.put(pooled(key), pooled(trim ? value.trim() : value)));
+        return read;
+    }
+    
     /**
      * Parses the content of a line to a {@code Key-Value} pair and stores at as
-     * setting.
+     * setting. If the line is an {@value #INCLUDE_ENTRY} directive, the
+     * settings of the included file are stored instead. If the line is a
+     * {@code [section]} header, the section's name followed by a dot prefixes
+     * the names of all following settings of the source, until the next
+     * header. {@code []} ends the section.
      *
      * @param line
      *         to be parsed. Should have the form
      *         "setting_name=setting_value".
      *         {@code COMMENT) indicates a comment, i.e. this sign(s) and everything following will be ignored.
+     * @param target
+     *         the parsed setting will be put into
+     * @param includes
+     *         resolving the included files
+     * @throws IOException
+     *         if reading an included file fails
+     */
+    private void lineToSetting(String line, Map<String, String> target, IncludeContext includes)
+            throws IOException {
+        String section = parseSectionHeader(line);
+        if (section != null) {
+            includes.section = section;
+            if (!section.isEmpty()) declareSection(section);
+            return;
+        }
+        Map.Entry<String, String> setting = parseLine(line);
+        if (setting != null) applySetting(inSection(setting, includes.section), target, includes);
+    }
+    
+    /**
+     * Parses a {@code [section]} header.
+     *
+     * @param line
+     *         to be parsed
+     * @return the prefix of the section's settings, i.e. its name followed by
+     * a dot, an empty {@code String} for {@code []} or {@code null} if the line
+     * is no header
+     */
+    private String parseSectionHeader(String line) {
+        String trimmed = line.trim();
+        // appears for example when "UTF-8 with BOM" is set, e.g. in Notepad++
+        if (!trimmed.isEmpty() && trimmed.charAt(0) == 65279) trimmed = trimmed.substring(1).trim();
+        if (trimmed.length() < 2 || trimmed.charAt(0) != '[' || trimmed.charAt(trimmed.length() - 1) != ']')
+            return null;
+        String name = trimmed.substring(1, trimmed.length() - 1).trim();
+        return name.isEmpty() ? "" : pooled(name + ".");
+    }
+    
+    /**
+     * Prefixes the name of a setting with the current section, if there is
+     * one. {@value #INCLUDE_ENTRY} directives are left as they are.
      */
-    private void lineToSetting(String line) {
-        if (line.isEmpty()) return;
+    private Map.Entry<String, String> inSection(Map.Entry<String, String> setting, String section) {
+        if (section.isEmpty() || INCLUDE_ENTRY.equals(setting.getKey())) return setting;
+        return new AbstractMap.SimpleImmutableEntry<>(pooled(section + setting.getKey()), setting.getValue());
+    }
+    
+    /**
+     * Parses the content of a line to a {@code Key-Value} pair.
+     *
+     * @param line
+     *         to be parsed. Should have the form
+     *         "setting_name=setting_value".
+     * @return the parsed pair, or {@code null} if the line holds no setting
+     */
+    private Map.Entry<String, String> parseLine(String line) {
+        if (line.isEmpty()) return null;
         // appears for example when "UTF-8 with BOM" is set, e.g. in Notepad++
         char bom = 65279;
         line = line.replace(Character.toString(bom), "");
-        if (line.trim().startsWith(commentDesignator)) return;
+        if (line.trim().startsWith(commentDesignator)) return null;
         Matcher settingMatcher = settingFromLine.matcher(line);
-        if (settingMatcher.find()) {
-            if (trim) settings.put(settingMatcher.group(1).trim(), settingMatcher.group(2).trim());
-            else settings.put(settingMatcher.group(1), settingMatcher.group(2));
+        if (!settingMatcher.find()) return null;
+        if (trim) return new AbstractMap.SimpleImmutableEntry<>(pooled(settingMatcher.group(1).trim()),
+                pooled(settingMatcher.group(2).trim()));
+        return new AbstractMap.SimpleImmutableEntry<>(pooled(settingMatcher.group(1)),
+                pooled(settingMatcher.group(2)));
+    }
+    
+    /**
+     * Stores a parsed setting, or the settings of the included file if it is
+     * an {@value #INCLUDE_ENTRY} directive.
+     */
+    private void applySetting(Map.Entry<String, String> setting, Map<String, String> target,
+                              IncludeContext includes) throws IOException {
+        if (!INCLUDE_ENTRY.equals(setting.getKey())) target.put(setting.getKey(), setting.getValue());
+        else if (includes.resolveIncludes) include(setting.getValue(), target, includes);
+        else includes.skippedIncludes = true;
+    }
+    
+    /**
+     * Stores the settings of an included file. The file is parsed via the
+     * {@link FragmentCache}, so it is parsed only once as long as it doesn't
+     * change.
+     *
+     * @param fileName
+     *         of the included file, relative to the including one
+     * @param target
+     *         the included settings will be put into
+     * @param includes
+     *         resolving the included files
+     * @throws IOException
+     *         if reading the included file fails or the inclusion is cyclic
+     */
+    private void include(String fileName, Map<String, String> target, IncludeContext includes) throws IOException {
+        Path fragment = includes.directory.resolve(fileName).toRealPath();
+        if (includes.includingFiles.contains(fragment)) throw new IOException(
+                "Cyclic inclusion of " + fragment + " by " + includes.includingFiles.peek());
+        // pooling is part of the key, so pooling preparers never get unpooled entries
+        String options = trim + " " + poolStrings + " " + commentDesignator;
+        List<Map.Entry<String, String>> settingsOfFragment = FragmentCache.get(fragment, includes.encoding, options,
+                this::parseFragment);
+        includes.includingFiles.push(fragment);
+        try {
+            IncludeContext nestedIncludes = new IncludeContext(fragment.getParent(), includes.encoding,
+                    includes.includingFiles);
+            for (Map.Entry<String, String> setting : settingsOfFragment) {
+                applySetting(setting, target, nestedIncludes);
+            }
+        } finally {
+            includes.includingFiles.pop();
         }
     }
     
     /**
-     * Gets the {@link SettingConverter} linked the the requested class. If no
-     * one exists, the belonging to the next registered super class will be
-     * returned. If this fails, too, an {@link IllegalArgumentException} will be
-     * thrown.
+     * Parses an included file without resolving its own includes, so the
+     * result can be cached independently of other files.
      *
-     * @param settingClass
-     *         a matching {@code converter} is requested to
-     * @return the matching {@code converter}
-     * @throws IllegalArgumentException
-     *         if matching {@link SettingConverter} is registered
-     */
-    private SettingConverter getConverter(Class<?> settingClass) {
-        if (settingConverters.containsKey(settingClass)) return settingConverters.get(settingClass);
-        else {
-            Set<Class<?>> supportedClasses = new TreeSet<>((c1, c2) -> {
-                if (c1.isAssignableFrom(c2)) return 1;
-                    // we do not want to override items in the TreeSet, so we won't return 0
-                else // if (c2.isAssignableFrom(c1))
-                    return -1;
-                // else return 0;
+     * @param fragment
+     *         the included file
+     * @param encoding
+     *         of the file
+     * @return the settings and include directives in the order of their
+     * appearance
+     * @throws IOException
+     *         if reading the file fails
+     */
+    private List<Map.Entry<String, String>> parseFragment(Path fragment, Charset encoding) throws IOException {
+        List<Map.Entry<String, String>> settingsOfFragment = new ArrayList<>();
+        try (InputStream input = Files.newInputStream(fragment)) {
+            String[] section = {""};
+            PooledLineReader.readLines(input, encoding, line -> {
+                String header = parseSectionHeader(line);
+                if (header != null) section[0] = header;
+                else {
+                    Map.Entry<String, String> setting = parseLine(line);
+                    if (setting != null) settingsOfFragment.add(inSection(setting, section[0]));
+                }
             });
-            supportedClasses.addAll(settingConverters.keySet());
-            Class<?> supportedClass = supportedClasses.stream()
-                                                      .filter(clazz -> clazz.isAssignableFrom(settingClass))
-                                                      .findFirst()
-                                                      .orElseThrow(() -> new IllegalArgumentException(
-                                                              "Class " + settingClass.getName() + " is not supported" + "."));
-            return settingConverters.get(supportedClass);
         }
+        return List.copyOf(settingsOfFragment);
+    }
+    
+    /**
+     * Canonicalizes the specified {@code String} via the {@link StringPool} if
+     * {@link #withStringPooling(boolean)} is enabled.
+     *
+     * @param string
+     *         to be canonicalized
+     * @return the canonical instance, or {@code string} itself if pooling is
+     * disabled
+     */
+    private String pooled(String string) {
+        return poolStrings ? StringPool.canonicalize(string) : string;
     }
     
     /**
@@ -525,11 +1676,21 @@ public final class ConfigPreparer {
      * won't start the {@code prefix} anymore.
      */
     private Map<String, String> filterMapByPrefix(String prefix) {
+        Map<String, String> base = settings.unchangedBase();
+        if (base instanceof FrozenSettings) return ((FrozenSettings) base).withPrefix(prefix);
         Map<String, String> filtered = new HashMap<>();
+        Set<String> sectionKeys = sectionsIncomplete ? null : sections.get(prefix);
+        if (sectionKeys != null) {
+            // the settings of a section are known already, so the others don't have to be scanned
+            for (String key : sectionKeys) {
+                String value = settings.get(key);
+                if (value != null) filtered.put(pooled(key.substring(prefix.length())), value);
+            }
+            return filtered;
+        }
         settings.forEach((key, value) -> {
-            String[] prefixAndName = key.split(Pattern.quote(prefix), 2);
-            if (prefixAndName.length > 1) {
-                filtered.put(prefixAndName[1], value);
+            if (key.startsWith(prefix)) {
+                filtered.put(pooled(key.substring(prefix.length())), value);
             }
         });
         return filtered;
@@ -549,32 +1710,34 @@ public final class ConfigPreparer {
      *         if non-optional settings are missing or a field could not be
      *         set due to another reason
      */
-    private void updateViaAnnotation(Config toFill) {
-        missingSettings.clear();
-        causedExeptions.clear();
-        updateNonNestedFields(toFill);
-        configureSubConfigs(toFill);
-        if (!missingSettings.isEmpty()) throw new IllegalStateException(
-                "The following non-optional settings are missing: " + missingSettings.stream()
-                                                                                     .map(Field::getName)
+    private void updateViaAnnotation(Config toFill, FillReport report) {
+        updateNonNestedFields(toFill, report);
+        configureSubConfigs(toFill, report);
+        if (!report.missingSettings.isEmpty()) throw new IllegalStateException(
+                "The following non-optional settings are missing: " + report.missingSettings.stream()
+                                                                                            .map(Field::getName)
+                                                                                            .collect(
+                                                                                                    Collectors.joining(
+                                                                                                            ", ")));
+        else if (!report.causedExceptions.isEmpty()) throw new IllegalStateException(
+                "The following settings caused exceptions: " + report.causedExceptions.entrySet()
+                                                                                     .stream()
+                                                                                     .map(e -> e.getKey()
+                                                                                                .getName() + " (" + e.getValue() + ")")
                                                                                      .collect(
                                                                                              Collectors.joining(", ")));
-        else if (!causedExeptions.isEmpty()) throw new IllegalStateException(
-                "The following settings caused exceptions: " + causedExeptions.entrySet()
-                                                                              .stream()
-                                                                              .map(e -> e.getKey()
-                                                                                         .getName() + " (" + e.getValue() + ")")
-                                                                              .collect(Collectors.joining(", ")));
     }
     
     /**
-     * Settles the first part of the {@link #updateViaAnnotation(Config)} and returns
-     * a {@code Map} of settings (and their set
-     * {@link Setting#defaultValue()}s>) which did not appear in the
-     * {@link #settings} read from file.
+     * Settles the first part of the {@link #updateViaAnnotation(Config, FillReport)} and
+     * collects the settings (and their set {@link Setting#defaultValue()}s>)
+     * which did not appear in the {@link #settings} read from file in the
+     * {@link FillReport}.
      */
-    private void updateNonNestedFields(Config toFill) {
+    private void updateNonNestedFields(Config toFill, FillReport report) {
         List<Field> fields = getAllNonPrivateFieldsOrdered(toFill);
+        List<Field> boundFields = new ArrayList<>();
+        List<CompletableFuture<Object>> boundValues = new ArrayList<>();
         for (Field field : fields) {
             Setting settingAnnotation = field.getAnnotation(Setting.class);
             if (settingAnnotation != null) {
@@ -586,50 +1749,223 @@ public final class ConfigPreparer {
                         settingString = settingAnnotation.defaultValue()
                                                          .isEmpty() ? null : settingAnnotation.defaultValue();
                         if (!settingAnnotation.isOptional()) {
-                            settings.put(settingName, settingString);
+                            report.defaults.put(settingName, settingString);
                         }
                     }
-                    Function<String, Object> toObjectConverter = getConverter(field.getType()).toObject;
+                    Function<String, Object> toObjectConverter = settingConverters.toObjectFunction(field,
+                            settingAnnotation, cacheConversions);
                     if (settingString == null || settingString.isEmpty()) {
                         if (!settingAnnotation.isOptional()) {
-                            missingSettings.add(field);
+                            report.missingSettings.add(field);
                         }
                     } else {
-                        Object setting = toObjectConverter.apply(settingString);
-                        field.setAccessible(true);
-                        field.set(toFill, setting);
+                        String value = settingString;
+                        boundFields.add(field);
+                        boundValues.add(bind(() -> toObjectConverter.apply(value),
+                                settingAnnotation.unit().isEmpty() && hasCustomConverter(field.getGenericType())));
                     }
-                } catch (IllegalArgumentException | IllegalAccessException e) {
-                    if (!settingAnnotation.isOptional()) causedExeptions.put(field, e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    if (!settingAnnotation.isOptional()) report.causedExceptions.put(field, e.getMessage());
                 }
             }
         }
+        // the values are assigned in the order of the fields, so the report is the same as in a sequential fill
+        for (int i = 0; i < boundFields.size(); i++) {
+            Field field = boundFields.get(i);
+            try {
+                Object setting = joinBound(boundValues.get(i));
+                field.setAccessible(true);
+                field.set(toFill, setting);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                if (!field.getAnnotation(Setting.class).isOptional()) report.causedExceptions.put(field, e.getMessage());
+            }
+        }
     }
     
     /**
-     * Settles the second part of the {@link #updateViaAnnotation(Config)} method, the
-     * creation of annotated {@code Config}s inside a container {@code Config}.
+     * Settles the second part of the {@link #updateViaAnnotation(Config, FillReport)}
+     * method, the creation of annotated {@code Config}s inside a container
+     * {@code Config}. Nested {@code Config}s are filled as far as possible,
+     * their problems are added to the {@link FillReport}.
      */
-    private void configureSubConfigs(Config toFill) {
+    private void configureSubConfigs(Config toFill, FillReport report) {
         Field[] fields = toFill.getClass().getFields();
+        List<Field> boundFields = new ArrayList<>();
+        List<CompletableFuture<NestedFill>> boundConfigs = new ArrayList<>();
         for (Field field : fields) {
             NestedConfig subConfigAnnotation = field.getAnnotation(NestedConfig.class);
             Class<?> type = field.getType();
             if (subConfigAnnotation != null && Config.class.isAssignableFrom(field.getType())) {
-                try {
-                    @SuppressWarnings("unchecked") Class<? extends Config> subConfigClass =
-                            (Class<? extends Config>) type;
-                    Map<String, ?> subSettings = getSettings(subConfigAnnotation.prefix());
-                    Config subConfig = subConfigClass.getDeclaredConstructor().newInstance();
-                    new ConfigPreparer().addSettingsSource(subSettings).fillConfig(subConfig);
-                    field.setAccessible(true);
-                    field.set(toFill, subConfig);
-                } catch (IllegalArgumentException | IllegalAccessException | InstantiationException | SecurityException | NoSuchMethodException | InvocationTargetException e) {
-                    causedExeptions.put(field, e.getMessage());
+                if (lazyNestedConfigs && !hasSettingsWithPrefix(subConfigAnnotation.prefix(), report)) continue;
+                @SuppressWarnings("unchecked") Class<? extends Config> subConfigClass = (Class<? extends Config>) type;
+                boundFields.add(field);
+                boundConfigs.add(bind(() -> fillSubConfig(subConfigClass, subConfigAnnotation.prefix()), true));
+            }
+        }
+        // the nested Configs are assigned in the order of the fields, so the report is deterministic
+        for (int i = 0; i < boundFields.size(); i++) {
+            Field field = boundFields.get(i);
+            try {
+                NestedFill nestedFill = joinBound(boundConfigs.get(i));
+                if (nestedFill.failure != null) report.causedExceptions.put(field, nestedFill.failure);
+                field.setAccessible(true);
+                field.set(toFill, nestedFill.config);
+            } catch (IllegalArgumentException | IllegalAccessException | SecurityException e) {
+                report.causedExceptions.put(field, e.getMessage());
+            }
+        }
+        
+    }
+    
+    /**
+     * Creates and fills a nested {@code Config}.
+     *
+     * @throws IllegalArgumentException
+     *         if the nested {@code Config} could not be created
+     */
+    private NestedFill fillSubConfig(Class<? extends Config> subConfigClass, String prefix) {
+        try {
+            Map<String, ?> subSettings = getSettings(prefix);
+            Config subConfig = subConfigClass.getDeclaredConstructor().newInstance();
+            try {
+                ConfigPreparer subPreparer = withoutSettings();
+                // nested Configs are filled sequentially, so no task blocks a thread of the executor
+                subPreparer.parallelFill = null;
+                // frozen settings are shared with the nested config instead of being copied
+                if (subSettings instanceof FrozenSettings) subPreparer.settings = new SettingsOverlay(
+                        (FrozenSettings) subSettings);
+                else {
+                    subPreparer.addSettingsSource(subSettings);
+                    subPreparer.sections = nestedSections(prefix);
                 }
+                subPreparer.fillConfig(subConfig);
+                return new NestedFill(subConfig, null);
+            } catch (IllegalStateException e) {
+                return new NestedFill(subConfig, e.getMessage());
+            }
+        } catch (InstantiationException | IllegalAccessException | SecurityException | NoSuchMethodException | InvocationTargetException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Determines the {@code [section]}s within a nested {@code Config}, named
+     * relative to it.
+     *
+     * @param prefix
+     *         of the nested {@code Config}
+     * @return the sections nested in the prefix, without the prefix
+     */
+    private Map<String, Set<String>> nestedSections(String prefix) {
+        Map<String, Set<String>> nested = new HashMap<>();
+        if (sectionsIncomplete) return nested;
+        sections.forEach((section, keys) -> {
+            if (section.length() > prefix.length() && section.startsWith(prefix)) {
+                Set<String> nestedKeys = new HashSet<>();
+                for (String key : keys) {
+                    nestedKeys.add(pooled(key.substring(prefix.length())));
+                }
+                nested.put(section.substring(prefix.length()), nestedKeys);
+            }
+        });
+        return nested;
+    }
+    
+    /**
+     * Runs a binding task, either on the {@link #parallelFill} executor or
+     * directly if there is none or the task is not worth it.
+     *
+     * @param task
+     *         to be run
+     * @param expensive
+     *         whether the task might be slow
+     * @param <T>
+     *         of the result
+     * @return the (future) result of the task
+     */
+    private <T> CompletableFuture<T> bind(Supplier<T> task, boolean expensive) {
+        if (parallelFill != null && expensive) return CompletableFuture.supplyAsync(task, parallelFill);
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Waits for the result of a task started by
+     * {@link #bind(Supplier, boolean)}. Joining establishes a
+     * happens-before relation with the task.
+     *
+     * @throws IllegalArgumentException
+     *         if the task failed with one
+     */
+    private static <T> T joinBound(CompletableFuture<T> boundValue) {
+        try {
+            return boundValue.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException) throw (IllegalArgumentException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+    
+    /**
+     * @return {@code true} if values of the specified type, or of its elements
+     * in case of arrays and generic collections, are converted by a
+     * {@link SettingConverter} other than the standard ones
+     */
+    private boolean hasCustomConverter(Type type) {
+        if (parallelFill == null) return false;
+        if (type instanceof GenericArrayType) return hasCustomConverter(((GenericArrayType) type).getGenericComponentType());
+        if (type instanceof ParameterizedType) {
+            for (Type typeArgument : ((ParameterizedType) type).getActualTypeArguments()) {
+                if (hasCustomConverter(typeArgument)) return true;
+            }
+        }
+        Class<?> rawType = ConverterRegistry.rawClass(type);
+        if (rawType.isArray()) return hasCustomConverter(rawType.getComponentType());
+        try {
+            SettingConverter converter = settingConverters.get(rawType);
+            try {
+                return converter != STANDARD_CONVERTERS.get(rawType);
+            } catch (IllegalArgumentException e) {
+                return true;
             }
+        } catch (IllegalArgumentException e) {
+            return false;
         }
+    }
+    
+    /**
+     * Result of filling a nested {@code Config}.
+     */
+    private static final class NestedFill {
+        private final Config config;
+        /** Message of the problems of the nested {@code Config}, {@code null} if there were none */
+        private final String failure;
         
+        private NestedFill(Config config, String failure) {
+            this.config = config;
+            this.failure = failure;
+        }
+    }
+    
+    /**
+     * Checks whether there is at least one setting beginning with the
+     * specified prefix. The keys get sorted once per {@link FillReport}, so
+     * checking many prefixes doesn't iterate all settings each time.
+     */
+    private boolean hasSettingsWithPrefix(String prefix, FillReport report) {
+        Map<String, String> base = settings.unchangedBase();
+        if (base instanceof FrozenSettings) return !((FrozenSettings) base).withPrefix(prefix).isEmpty();
+        Set<String> sectionKeys = sectionsIncomplete ? null : sections.get(prefix);
+        if (sectionKeys != null) return !sectionKeys.isEmpty();
+        if (report.sortedKeys == null) report.sortedKeys = new TreeSet<>(settings.keySet());
+        String candidate = report.sortedKeys.ceiling(prefix);
+        return candidate != null && candidate.startsWith(prefix);
     }
     
     /**
@@ -673,14 +2009,13 @@ public final class ConfigPreparer {
         Map<String, String> updatesAsStrings = new HashMap<>();
         updates.forEach((key, value) -> {
             if (value != null) {
-                SettingConverter converter = getConverter(value.getClass());
-                if (converter != null) {
-                    updatesAsStrings.put(key, converter.toString.apply(value));
-                } else {
+                try {
+                    updatesAsStrings.put(pooled(key), pooled(settingConverters.toString(value)));
+                } catch (IllegalArgumentException e) {
                     exceptions.put(key, value.getClass().getName());
                 }
             } else {
-                updatesAsStrings.put(key, "");
+                updatesAsStrings.put(pooled(key), "");
             }
         });
         if (exceptions.isEmpty()) return updatesAsStrings;
@@ -692,4 +2027,67 @@ public final class ConfigPreparer {
                                                                                                      Collectors.joining(
                                                                                                              ", ")));
     }
+    
+    /**
+     * Holds the state of a single {@link #fillConfig(Config)} call, so the
+     * {@code ConfigPreparer} itself doesn't need to be modified.
+     */
+    private static final class FillReport {
+        /**
+         * List of settings which where missing despite the
+         * {@link Setting#isOptional()} constraint
+         */
+        private final List<Field> missingSettings = new ArrayList<>();
+        /**
+         * Maps {@link Field}s to the {@link Exception} message they caused when
+         * read
+         */
+        private final Map<Field, String> causedExceptions = new LinkedHashMap<>();
+        /** Non-optional settings which were not found, mapped to their default values */
+        private final Map<String, String> defaults = new HashMap<>();
+        /** The sorted names of all settings, created on demand */
+        private NavigableSet<String> sortedKeys;
+    }
+    
+    /**
+     * Holds what is needed to resolve {@value #INCLUDE_ENTRY} directives and
+     * {@code [section]} headers while a source is read.
+     */
+    private static final class IncludeContext {
+        /** Directory relative to which included files are resolved */
+        private final Path directory;
+        /** Encoding of included files */
+        private final Charset encoding;
+        /** Files currently being included, to detect cycles */
+        private final Deque<Path> includingFiles;
+        /** Prefix of the current {@code [section]} of the read source, empty if there is none */
+        private String section = "";
+        /** Whether included files are read, {@code false} while only the encoding of a source is determined */
+        private boolean resolveIncludes = true;
+        /** Whether {@code include} directives were skipped as {@link #resolveIncludes} was disabled */
+        private boolean skippedIncludes = false;
+        
+        private IncludeContext(Path directory, Charset encoding, Deque<Path> includingFiles) {
+            this.directory = directory;
+            this.encoding = encoding;
+            this.includingFiles = includingFiles;
+        }
+        
+        /**
+         * @param origin
+         *         the read file, or {@code null} if the source is no file.
+         *         In this case, files are included relative to the working
+         *         directory.
+         * @param encoding
+         *         of included files
+         * @return the context for reading a source
+         */
+        private static IncludeContext of(Path origin, Charset encoding) throws IOException {
+            Deque<Path> includingFiles = new ArrayDeque<>();
+            if (origin == null) return new IncludeContext(Paths.get("").toAbsolutePath(), encoding, includingFiles);
+            Path realOrigin = origin.toRealPath();
+            includingFiles.push(realOrigin);
+            return new IncludeContext(realOrigin.getParent(), encoding, includingFiles);
+        }
+    }
 }
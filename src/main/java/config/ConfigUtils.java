@@ -4,6 +4,9 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Internal utility methods
@@ -64,4 +67,126 @@ public class ConfigUtils {
             throw new IllegalArgumentException(e);
         }
     }
+    
+    /**
+     * Parses a {@code boolean} strictly. Accepted are {@code true},
+     * {@code yes}, {@code on} and {@code 1} as well as {@code false},
+     * {@code no}, {@code off} and {@code 0}, ignoring case and surrounding
+     * spacings. Unlike {@link Boolean#parseBoolean(String)}, typos won't be
+     * taken as {@code false} silently.
+     *
+     * @param value
+     *         to be parsed
+     * @return the parsed {@code boolean}
+     * @throws IllegalArgumentException
+     *         if the value is none of the accepted ones
+     */
+    public static boolean parseBoolean(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "on":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "off":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("No boolean: " + value);
+        }
+    }
+    
+    /**
+     * Splits a {@code String} at each occurrence of the delimiter. A backslash
+     * escapes a following delimiter or backslash, all other backslashes are
+     * kept as they are. Unlike {@link String#split(String)}, no regular
+     * expression is involved and empty trailing parts are kept.
+     *
+     * @param string
+     *         to be split
+     * @param delimiter
+     *         separating the parts
+     * @return the unescaped parts
+     */
+    public static List<String> split(String string, char delimiter) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < string.length(); i++) {
+            if (isEscape(string, i, delimiter)) i++;
+            else if (string.charAt(i) == delimiter) {
+                parts.add(unescape(string, start, i, delimiter));
+                start = i + 1;
+            }
+        }
+        parts.add(unescape(string, start, string.length(), delimiter));
+        return parts;
+    }
+    
+    /**
+     * Splits a {@code String} at the first unescaped occurrence of the
+     * delimiter, see {@link #split(String, char)}.
+     *
+     * @param string
+     *         to be split
+     * @param delimiter
+     *         separating the parts
+     * @return the unescaped parts before and after the delimiter, or
+     * {@code null} if the delimiter does not occur
+     */
+    public static String[] splitOnce(String string, char delimiter) {
+        for (int i = 0; i < string.length(); i++) {
+            if (isEscape(string, i, delimiter)) i++;
+            else if (string.charAt(i) == delimiter) return new String[]{unescape(string, 0, i, delimiter), unescape(
+                    string, i + 1, string.length(), delimiter)};
+        }
+        return null;
+    }
+    
+    /**
+     * Escapes all occurrences of the delimiter and of backslashes by a
+     * backslash, so the result can be split by {@link #split(String, char)}.
+     *
+     * @param string
+     *         to be escaped
+     * @param delimiter
+     *         to be escaped
+     * @return the escaped {@code String}
+     */
+    public static String escape(String string, char delimiter) {
+        if (string.indexOf(delimiter) < 0 && string.indexOf('\\') < 0) return string;
+        StringBuilder escaped = new StringBuilder(string.length() + 8);
+        for (int i = 0; i < string.length(); i++) {
+            char current = string.charAt(i);
+            if (current == delimiter || current == '\\') escaped.append('\\');
+            escaped.append(current);
+        }
+        return escaped.toString();
+    }
+    
+    /**
+     * @return whether the character at the specified index is a backslash
+     * escaping a delimiter or another backslash
+     */
+    private static boolean isEscape(String string, int index, char delimiter) {
+        if (string.charAt(index) != '\\' || index + 1 >= string.length()) return false;
+        char next = string.charAt(index + 1);
+        return next == delimiter || next == '\\';
+    }
+    
+    /**
+     * @return the part of the {@code String} between the indices with escaping
+     * backslashes removed. Only copies if there is anything to unescape.
+     */
+    private static String unescape(String string, int start, int end, char delimiter) {
+        int firstEscape = string.indexOf('\\', start);
+        if (firstEscape < 0 || firstEscape >= end) return string.substring(start, end);
+        StringBuilder unescaped = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            if (isEscape(string, i, delimiter)) i++;
+            unescaped.append(string.charAt(i));
+        }
+        return unescaped.toString();
+    }
 }
@@ -0,0 +1,114 @@
+package config;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * JVM-wide cache of values converted by cacheable {@link SettingConverter}s,
+ * see {@link ConfigPreparer#withConversionCache(boolean)}. Values are keyed by
+ * the target type, the converter and the {@code String} representation, so
+ * different converters for the same type never share values. The cache is
+ * bounded by {@value #MAX_SIZE} entries and evicts the least recently used
+ * ones first, so values of converters or classes which aren't used anymore
+ * are dropped eventually. It is split into {@value #SEGMENTS} segments with
+ * locks of their own, so concurrent fills rarely wait for each other. Failed
+ * conversions are not cached.
+ *
+ * @author JonasDoe
+ */
+final class ConvertedValueCache {
+    /** Maximum number of cached values */
+    static final int MAX_SIZE = 1 << 14;
+    /** Number of independently locked segments, a power of two */
+    static final int SEGMENTS = 16;
+    /** The cached values, each segment in the order of their last access */
+    private static final Segment[] VALUES = new Segment[SEGMENTS];
+    
+    static {
+        for (int i = 0; i < SEGMENTS; i++) VALUES[i] = new Segment();
+    }
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private ConvertedValueCache() {
+    }
+    
+    /**
+     * Creates a {@code Function} which converts via the specified
+     * {@link SettingConverter}, but takes already converted values from the
+     * cache.
+     *
+     * @param type
+     *         the values are converted to
+     * @param converter
+     *         converting the values
+     * @return the caching {@code Function}
+     */
+    static Function<String, Object> memoize(Type type, SettingConverter converter) {
+        return string -> {
+            Key key = new Key(type, converter, string);
+            // the upper bits pick the segment, the lower ones the bucket within it
+            Segment segment = VALUES[key.hashCode() >>> Integer.numberOfLeadingZeros(SEGMENTS - 1)];
+            Object value;
+            synchronized (segment) {
+                value = segment.get(key);
+            }
+            if (value != null) return value;
+            value = converter.toObject.apply(string);
+            if (value == null) return null;
+            synchronized (segment) {
+                Object cached = segment.putIfAbsent(key, value);
+                return cached == null ? value : cached;
+            }
+        };
+    }
+    
+    /**
+     * Part of the cache, holding the most recently used values of its keys.
+     */
+    private static final class Segment extends LinkedHashMap<Key, Object> {
+        private Segment() {
+            super(16, 0.75f, true);
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            return size() > MAX_SIZE / SEGMENTS;
+        }
+    }
+    
+    /**
+     * Identifies a converted value.
+     */
+    private static final class Key {
+        private final Type type;
+        private final SettingConverter converter;
+        private final String string;
+        private final int hash;
+        
+        private Key(Type type, SettingConverter converter, String string) {
+            this.type = type;
+            this.converter = converter;
+            this.string = string;
+            int mixed = Objects.hash(type, System.identityHashCode(converter), string);
+            this.hash = mixed ^ mixed >>> 16;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return converter == key.converter && type.equals(key.type) && string.equals(key.string);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package config;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Holds the {@link SettingConverter}s of a {@link ConfigPreparer} or
+ * {@link Config} and resolves them for the types of settings, including
+ * generic types like {@code List<Integer>}.
+ *
+ * @author JonasDoe
+ */
+final class ConverterRegistry {
+    /**
+     * All converters than can be used to convert {@code Objects} to
+     * {@code Strings} and back
+     */
+    private final Map<Class<?>, SettingConverter> settingConverters;
+    /** Decoders of {@link Secret}s by their names */
+    private final Map<String, Function<String, String>> decoders;
+    
+    /**
+     * Creates an empty {@code ConverterRegistry}.
+     */
+    ConverterRegistry() {
+        settingConverters = new HashMap<>();
+        decoders = new HashMap<>();
+    }
+    
+    /**
+     * Creates a {@code ConverterRegistry} holding the same
+     * {@link SettingConverter}s as the specified one.
+     *
+     * @param toCopy
+     *         the {@code ConverterRegistry} to be copied
+     */
+    ConverterRegistry(ConverterRegistry toCopy) {
+        settingConverters = new HashMap<>(toCopy.settingConverters);
+        decoders = new HashMap<>(toCopy.decoders);
+    }
+    
+    /**
+     * Registers a {@link SettingConverter} for the specified {@link Class}.
+     *
+     * @param type
+     *         {@link Class} the {@code SettingConverter} is able to handle
+     * @param converter
+     *         to be registered
+     */
+    void register(Class<?> type, SettingConverter converter) {
+        settingConverters.put(type, converter);
+    }
+    
+    /**
+     * Registers a decoder of {@link Secret}s.
+     *
+     * @param name
+     *         of the decoder, as used by {@link Setting#decoder()} and
+     *         {@value Secret#ENCODED_PREFIX} prefixes
+     * @param decoder
+     *         to be registered
+     */
+    void registerDecoder(String name, Function<String, String> decoder) {
+        decoders.put(name, decoder);
+    }
+    
+    /**
+     * Registers all {@link SettingConverter}s and decoders of the specified
+     * {@code ConverterRegistry}.
+     *
+     * @param toAdd
+     *         the {@code ConverterRegistry} whose {@code SettingConverter}s
+     *         will be added
+     */
+    void registerAll(ConverterRegistry toAdd) {
+        settingConverters.putAll(toAdd.settingConverters);
+        decoders.putAll(toAdd.decoders);
+    }
+    
+    /**
+     * Gets the {@link SettingConverter} linked the the requested class. If no
+     * one exists, the belonging to the next registered super class will be
+     * returned. If this fails, too, an {@link IllegalArgumentException} will be
+     * thrown.
+     *
+     * @param settingClass
+     *         a matching {@code converter} is requested to
+     * @return the matching {@code converter}
+     * @throws IllegalArgumentException
+     *         if matching {@link SettingConverter} is registered
+     */
+    SettingConverter get(Class<?> settingClass) {
+        if (settingConverters.containsKey(settingClass)) return settingConverters.get(settingClass);
+        else {
+            Set<Class<?>> supportedClasses = new TreeSet<>((c1, c2) -> {
+                if (c1.isAssignableFrom(c2)) return 1;
+                    // we do not want to override items in the TreeSet, so we won't return 0
+                else // if (c2.isAssignableFrom(c1))
+                    return -1;
+                // else return 0;
+            });
+            supportedClasses.addAll(settingConverters.keySet());
+            Class<?> supportedClass = supportedClasses.stream()
+                                                      .filter(clazz -> clazz.isAssignableFrom(settingClass))
+                                                      .findFirst()
+                                                      .orElseThrow(() -> new IllegalArgumentException(
+                                                              "Class " + settingClass.getName() + " is not supported" + "."));
+            return settingConverters.get(supportedClass);
+        }
+    }
+    
+    /**
+     * Resolves the {@code Function} which converts the {@code String}
+     * representation of a setting to an {@code Object} of the specified type.
+     * Type arguments and array component types are taken into account, e.g.
+     * the elements of a {@code List<Integer>} will be converted to
+     * {@code Integer}s.
+     *
+     * @param type
+     *         of the setting, e.g. the generic type of a {@code Field}
+     * @return the converting {@code Function}
+     * @throws IllegalArgumentException
+     *         if no matching {@link SettingConverter} is registered
+     */
+    Function<String, Object> toObjectFunction(Type type) {
+        return toObjectFunction(type, false);
+    }
+    
+    /**
+     * Resolves the {@code Function} which converts the {@code String}
+     * representation of a setting like {@link #toObjectFunction(Type)}. If
+     * requested and the {@link SettingConverter} is
+     * {@link SettingConverter#cacheable}, the converted values will be taken
+     * from the {@link ConvertedValueCache}.
+     *
+     * @param type
+     *         of the setting, e.g. the generic type of a {@code Field}
+     * @param cached
+     *         whether converted values may be cached
+     * @return the converting {@code Function}
+     * @throws IllegalArgumentException
+     *         if no matching {@link SettingConverter} is registered
+     */
+    Function<String, Object> toObjectFunction(Type type, boolean cached) {
+        if (type instanceof GenericArrayType) {
+            Class<?> componentType = rawClass(((GenericArrayType) type).getGenericComponentType());
+            return ArrayConverter.toObjectFunction(componentType, this);
+        }
+        Class<?> rawType = rawClass(type);
+        if (rawType.isArray()) return ArrayConverter.toObjectFunction(rawType.getComponentType(), this);
+        if (rawType == Secret.class) return string -> toSecret(string, "");
+        SettingConverter converter = get(rawType);
+        if (converter instanceof EnumConverter) return ((EnumConverter) converter).toObjectFunction(type);
+        if (converter instanceof CollectionConverter && type instanceof ParameterizedType) {
+            CollectionConverter collectionConverter = (CollectionConverter) converter;
+            Type[] typeArguments = ((ParameterizedType) type).getActualTypeArguments();
+            return string -> collectionConverter.toObject(string, typeArguments, this);
+        }
+        if (cached && converter.cacheable) return ConvertedValueCache.memoize(type, converter);
+        return converter.toObject;
+    }
+    
+    /**
+     * Resolves the {@code Function} which converts the {@code String}
+     * representation of a setting to the value of the specified field, taking
+     * its {@link Setting#unit()} and {@link Setting#decoder()} into account.
+     *
+     * @param field
+     *         to be set
+     * @param setting
+     *         the annotation of the field
+     * @param cached
+     *         whether converted values may be cached, see
+     *         {@link #toObjectFunction(Type, boolean)}
+     * @return the converting {@code Function}
+     * @throws IllegalArgumentException
+     *         if no matching {@link SettingConverter} is registered, or a
+     *         decoder is set for a field which is no {@link Secret}
+     */
+    Function<String, Object> toObjectFunction(Field field, Setting setting, boolean cached) {
+        if (!setting.unit().isEmpty()) return UnitParser.toUnitFunction(setting.unit(), field.getType());
+        if (!setting.decoder().isEmpty()) {
+            if (field.getType() != Secret.class) throw new IllegalArgumentException(
+                    "Decoders are only supported for fields of type " + Secret.class.getName());
+            return string -> toSecret(string, setting.decoder());
+        }
+        return toObjectFunction(field.getGenericType(), cached);
+    }
+    
+    /**
+     * Creates a {@link Secret} from its stored form. The value is not decoded
+     * yet, but the decoder is already resolved, so unknown decoders are
+     * reported right away.
+     *
+     * @param stored
+     *         the setting, possibly prefixed with
+     *         {@value Secret#ENCODED_PREFIX} and the name of the decoder
+     * @param decoderName
+     *         the decoder to be used if the setting names none, an empty
+     *         {@code String} for values which are not encoded
+     * @return the {@code Secret}
+     * @throws IllegalArgumentException
+     *         if the decoder is not registered
+     */
+    Secret toSecret(String stored, String decoderName) {
+        String encoded = stored;
+        if (stored.startsWith(Secret.ENCODED_PREFIX)) {
+            int end = stored.indexOf(':', Secret.ENCODED_PREFIX.length());
+            if (end < 0) throw new IllegalArgumentException(
+                    "Encoded value must be prefixed by " + Secret.ENCODED_PREFIX + "<decoder>:");
+            decoderName = stored.substring(Secret.ENCODED_PREFIX.length(), end);
+            encoded = stored.substring(end + 1);
+        }
+        if (decoderName.isEmpty()) return new Secret(stored, encoded, Function.identity());
+        Function<String, String> decoder = decoders.get(decoderName);
+        if (decoder == null) throw new IllegalArgumentException("Decoder " + decoderName + " is not registered");
+        return new Secret(stored, encoded, decoder);
+    }
+    
+    /**
+     * Converts the {@code String} representation of a setting to an
+     * {@code Object} of the specified type.
+     *
+     * @param type
+     *         of the setting
+     * @param string
+     *         representation to be converted
+     * @return the converted setting
+     * @throws IllegalArgumentException
+     *         if no matching {@link SettingConverter} is registered or the
+     *         conversion fails
+     */
+    Object toObject(Type type, String string) {
+        return toObjectFunction(type).apply(string);
+    }
+    
+    /**
+     * Converts a setting to its {@code String} representation, based on its
+     * runtime class.
+     *
+     * @param setting
+     *         to be converted, must not be {@code null}
+     * @return the {@code String} representation
+     * @throws IllegalArgumentException
+     *         if no matching {@link SettingConverter} is registered
+     */
+    String toString(Object setting) {
+        if (setting.getClass().isArray()) return ArrayConverter.toString(setting, this);
+        SettingConverter converter = get(setting.getClass());
+        if (converter instanceof CollectionConverter) return ((CollectionConverter) converter).toString(setting, this);
+        return converter.toString.apply(setting);
+    }
+    
+    /**
+     * Determines the {@link Class} representing the specified {@link Type},
+     * e.g. {@code List} for {@code List<String>}. Type variables and wildcards
+     * are represented by their (first) upper bound.
+     *
+     * @param type
+     *         to be resolved
+     * @return the resolved {@code Class}
+     */
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return rawClass(((ParameterizedType) type).getRawType());
+        if (type instanceof WildcardType) return rawClass(((WildcardType) type).getUpperBounds()[0]);
+        if (type instanceof TypeVariable) return rawClass(((TypeVariable<?>) type).getBounds()[0]);
+        if (type instanceof GenericArrayType) return Array.newInstance(
+                rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        return Object.class;
+    }
+}
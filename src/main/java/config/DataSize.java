@@ -0,0 +1,88 @@
+package config;
+
+/**
+ * An immutable amount of data, e.g. the size of a buffer. As setting, it is
+ * given with a unit like {@code 64KB} or {@code 512MiB}. Decimal units
+ * ({@code KB}, {@code MB}, {@code GB}, {@code TB}) are powers of 1000, binary
+ * units ({@code KiB}, {@code MiB}, {@code GiB}, {@code TiB}) are powers of
+ * 1024. Numbers without unit are bytes.
+ *
+ * @author JonasDoe
+ */
+public final class DataSize implements Comparable<DataSize> {
+    /** The size in bytes */
+    private final long bytes;
+    
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+    
+    /**
+     * @param bytes
+     *         the size in bytes
+     * @return the {@code DataSize}
+     */
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+    
+    /**
+     * Parses a {@code DataSize}, e.g. {@code 64KB} or {@code 512MiB}.
+     *
+     * @param value
+     *         to be parsed
+     * @return the parsed {@code DataSize}
+     * @throws IllegalArgumentException
+     *         if the value is no valid data size
+     */
+    public static DataSize parse(String value) {
+        return new DataSize(UnitParser.parseBytes(value));
+    }
+    
+    /**
+     * @return the size in bytes
+     */
+    public long toBytes() {
+        return bytes;
+    }
+    
+    /**
+     * @return the size in kibibytes (1024 bytes), truncated
+     */
+    public long toKibibytes() {
+        return bytes >> 10;
+    }
+    
+    /**
+     * @return the size in mebibytes (1024 kibibytes), truncated
+     */
+    public long toMebibytes() {
+        return bytes >> 20;
+    }
+    
+    @Override
+    public int compareTo(DataSize other) {
+        return Long.compare(bytes, other.bytes);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DataSize)) return false;
+        return bytes == ((DataSize) o).bytes;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+    
+    /**
+     * @return the size with the largest unit it is a multiple of, e.g.
+     * {@code 512MiB}
+     */
+    @Override
+    public String toString() {
+        return UnitParser.formatBytes(bytes);
+    }
+}
@@ -0,0 +1,123 @@
+package config;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Converts any {@link Enum} and {@link EnumSet} to its {@code String}
+ * representation and vice versa. Constants are looked up case-insensitively
+ * by their names and their {@link Alias}es, via a table which is computed
+ * once per enum type. The constants of an {@code EnumSet} are separated by
+ * {@value CollectionConverter#ELEMENT_DELIMITER}.
+ *
+ * @author JonasDoe
+ */
+final class EnumConverter extends SettingConverter {
+    /** The lookup tables of all enum types converted so far */
+    private static final ClassValue<Map<String, Enum<?>>> LOOKUP_TABLES = new ClassValue<>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            return createLookupTable(type);
+        }
+    };
+    
+    /**
+     * Creates a new {@code EnumConverter}.
+     */
+    EnumConverter() {
+        super(EnumConverter::format, string -> {
+            throw new IllegalArgumentException("The enum type of " + string + " is unknown");
+        });
+    }
+    
+    /**
+     * Resolves the {@code Function} which converts the {@code String}
+     * representation to an {@code Enum} or an {@code EnumSet}.
+     *
+     * @param type
+     *         of the setting, i.e. an {@code Enum} type or an
+     *         {@code EnumSet} with a known type argument
+     * @return the converting {@code Function}
+     * @throws IllegalArgumentException
+     *         if the type is neither an {@code Enum} nor a parameterized
+     *         {@code EnumSet}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Function<String, Object> toObjectFunction(Type type) {
+        Class<?> rawType = ConverterRegistry.rawClass(type);
+        if (rawType == EnumSet.class) {
+            if (!(type instanceof ParameterizedType)) throw new IllegalArgumentException(
+                    "The enum type of " + type.getTypeName() + " is unknown");
+            Class enumType = ConverterRegistry.rawClass(((ParameterizedType) type).getActualTypeArguments()[0]);
+            Map<String, Enum<?>> table = lookupTable(enumType);
+            return string -> {
+                EnumSet constants = EnumSet.noneOf(enumType);
+                for (String element : ConfigUtils.split(string, CollectionConverter.ELEMENT_DELIMITER)) {
+                    if (!element.trim().isEmpty()) constants.add(lookup(table, enumType, element));
+                }
+                return constants;
+            };
+        }
+        Map<String, Enum<?>> table = lookupTable(rawType);
+        return string -> lookup(table, rawType, string);
+    }
+    
+    /**
+     * @param type
+     *         an {@code Enum} type
+     * @return the lookup table of the {@code Enum} type, mapping lower case
+     * names and aliases to the constants. Ambiguous names are mapped to
+     * {@code null}.
+     * @throws IllegalArgumentException
+     *         if the type is no {@code Enum}
+     */
+    private static Map<String, Enum<?>> lookupTable(Class<?> type) {
+        if (!type.isEnum()) throw new IllegalArgumentException("Class " + type.getName() + " is no enum.");
+        return LOOKUP_TABLES.get(type);
+    }
+    
+    private static Map<String, Enum<?>> createLookupTable(Class<?> type) {
+        Map<String, Enum<?>> table = new HashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            Enum<?> enumConstant = (Enum<?>) constant;
+            addToLookupTable(table, enumConstant.name(), enumConstant);
+            try {
+                Alias alias = type.getField(enumConstant.name()).getAnnotation(Alias.class);
+                if (alias != null) {
+                    for (String name : alias.value()) {
+                        addToLookupTable(table, name, enumConstant);
+                    }
+                }
+            } catch (NoSuchFieldException e) {
+                // no op - each constant is a field
+            }
+        }
+        return table;
+    }
+    
+    private static void addToLookupTable(Map<String, Enum<?>> table, String name, Enum<?> constant) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (!table.containsKey(key)) table.put(key, constant);
+        else if (table.get(key) != constant) table.put(key, null);
+    }
+    
+    private static Enum<?> lookup(Map<String, Enum<?>> table, Class<?> type, String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        Enum<?> constant = table.get(key);
+        if (constant != null) return constant;
+        if (table.containsKey(key)) throw new IllegalArgumentException(
+                name + " is ambiguous for " + type.getName());
+        throw new IllegalArgumentException(
+                name + " is none of " + table.keySet().stream().sorted().collect(Collectors.joining(", ")));
+    }
+    
+    private static String format(Object setting) {
+        if (setting instanceof Collection) return ((Collection<?>) setting).stream().map(
+                constant -> ((Enum<?>) constant).name()).collect(
+                Collectors.joining(String.valueOf(CollectionConverter.ELEMENT_DELIMITER)));
+        return ((Enum<?>) setting).name();
+    }
+}
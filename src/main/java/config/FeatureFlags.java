@@ -0,0 +1,106 @@
+package config;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable set of {@code boolean} feature flags, compiled from settings
+ * via {@link Config#featureFlags(String)}. Each flag gets an id, so checking a
+ * flag on a hot path is just a bit test:
+ * <pre>
+ * {@code FeatureFlags flags = config.featureFlags("feature.");
+ * int newCheckout = flags.id("new_checkout");
+ * ...
+ * if (flags.isEnabled(newCheckout)) ...}
+ * </pre>
+ * The ids are assigned in the order of the flag names, so they are only valid
+ * for the {@code FeatureFlags} they were obtained from.
+ *
+ * @author JonasDoe
+ */
+public final class FeatureFlags {
+    /** Names of all flags, sorted, so the index of a name is its id */
+    private final String[] names;
+    /** Holds the set bit for each enabled flag */
+    private final BitSet enabled;
+    
+    /**
+     * Compiles the specified settings into flags.
+     *
+     * @param flags
+     *         the flag names and their values. Flags without value, e.g.
+     *         missing settings filled into a stump, are disabled.
+     * @throws IllegalStateException
+     *         if values are no valid {@code boolean}s
+     */
+    FeatureFlags(Map<String, String> flags) throws IllegalStateException {
+        names = flags.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        enabled = new BitSet(names.length);
+        List<String> invalidFlags = new ArrayList<>();
+        for (int id = 0; id < names.length; id++) {
+            String value = flags.get(names[id]);
+            if (value == null || value.isBlank()) continue;
+            try {
+                enabled.set(id, ConfigUtils.parseBoolean(value));
+            } catch (IllegalArgumentException e) {
+                invalidFlags.add(names[id] + "(" + value + ")");
+            }
+        }
+        if (!invalidFlags.isEmpty()) throw new IllegalStateException(
+                "The following flags are no valid booleans: " + String.join(", ", invalidFlags));
+    }
+    
+    /**
+     * Returns the id of a flag, which can be passed to {@link #isEnabled(int)}.
+     *
+     * @param name
+     *         of the flag, without prefix
+     * @return the id of the flag, or {@code -1} if there is no such flag
+     */
+    public int id(String name) {
+        int id = Arrays.binarySearch(names, name);
+        return id < 0 ? -1 : id;
+    }
+    
+    /**
+     * @param id
+     *         of the flag, see {@link #id(String)}
+     * @return {@code true} if the flag is enabled, {@code false} if it is
+     * disabled or unknown, i.e. {@code -1}
+     */
+    public boolean isEnabled(int id) {
+        return id >= 0 && enabled.get(id);
+    }
+    
+    /**
+     * Checks a flag by its name. Prefer {@link #isEnabled(int)} on hot paths.
+     *
+     * @param name
+     *         of the flag, without prefix
+     * @return {@code true} if the flag is enabled, {@code false} if it is
+     * disabled or unknown
+     */
+    public boolean isEnabled(String name) {
+        return isEnabled(id(name));
+    }
+    
+    /**
+     * @return the number of flags, enabled or not
+     */
+    public int size() {
+        return names.length;
+    }
+    
+    /**
+     * @return the names of all enabled flags
+     */
+    public Set<String> enabledFlags() {
+        return enabled.stream().mapToObj(id -> names[id]).collect(Collectors.toCollection(TreeSet::new));
+    }
+    
+    @Override
+    public String toString() {
+        return enabledFlags().toString();
+    }
+}
@@ -0,0 +1,123 @@
+package config;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Process-wide cache of parsed config fragments, i.e. files included by the
+ * {@code include} directive. A fragment is parsed once per path, modification
+ * time, size, encoding and parsing options, no matter how many
+ * {@link ConfigPreparer}s include it. The cache holds the least recently used
+ * {@value #MAX_FRAGMENTS} fragments at most.
+ *
+ * @author JonasDoe
+ */
+final class FragmentCache {
+    /** Maximum number of cached fragments */
+    static final int MAX_FRAGMENTS = 256;
+    /** The cached fragments in access order */
+    private static final Map<Key, List<Map.Entry<String, String>>> FRAGMENTS = new LinkedHashMap<>(16, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, List<Map.Entry<String, String>>> eldest) {
+            return size() > MAX_FRAGMENTS;
+        }
+    };
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private FragmentCache() {
+    }
+    
+    /**
+     * Parses a fragment.
+     */
+    interface FragmentParser {
+        /**
+         * @param fragment
+         *         the file to be parsed
+         * @param encoding
+         *         of the file
+         * @return the unmodifiable entries of the fragment in the order of
+         * their appearance, including unresolved include directives
+         * @throws IOException
+         *         if reading the file fails
+         */
+        List<Map.Entry<String, String>> parse(Path fragment, Charset encoding) throws IOException;
+    }
+    
+    /**
+     * Returns the parsed entries of the fragment, parsing it only if it isn't
+     * cached yet or has changed since.
+     *
+     * @param fragment
+     *         the real path of the file
+     * @param encoding
+     *         of the file
+     * @param options
+     *         describing all parsing options which influence the result
+     * @param parser
+     *         parsing the fragment if necessary
+     * @return the entries of the fragment in the order of their appearance
+     * @throws IOException
+     *         if reading the file fails
+     */
+    static List<Map.Entry<String, String>> get(Path fragment, Charset encoding, String options,
+                                               FragmentParser parser) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(fragment, BasicFileAttributes.class);
+        Key key = new Key(fragment, attributes.lastModifiedTime().toMillis(), attributes.size(), encoding, options);
+        List<Map.Entry<String, String>> entries;
+        synchronized (FRAGMENTS) {
+            entries = FRAGMENTS.get(key);
+        }
+        if (entries == null) {
+            // parsed outside the lock, so concurrent parsing of different fragments isn't blocked
+            entries = parser.parse(fragment, encoding);
+            synchronized (FRAGMENTS) {
+                FRAGMENTS.put(key, entries);
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Identifies a certain state of a fragment.
+     */
+    private static final class Key {
+        private final Path path;
+        private final long lastModified;
+        private final long size;
+        private final Charset encoding;
+        private final String options;
+        
+        private Key(Path path, long lastModified, long size, Charset encoding, String options) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.encoding = encoding;
+            this.options = options;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return lastModified == key.lastModified && size == key.size && path.equals(key.path) && encoding.equals(
+                    key.encoding) && options.equals(key.options);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, size, encoding, options);
+        }
+    }
+}
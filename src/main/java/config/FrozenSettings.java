@@ -0,0 +1,243 @@
+package config;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A compact, read-only {@link Map} holding settings. All keys and values are
+ * stored as UTF-8 in one {@code byte} array, ordered by their keys, and are
+ * found via binary search. Apart from this array, each setting needs just two
+ * {@code int}s, so a frozen {@code Map} with many settings is many times
+ * smaller than a {@link HashMap}. {@code String}s are decoded on each access,
+ * so lookups are {@code O(log n)} and allocate.<br>
+ * Settings beginning with a certain prefix can be viewed via
+ * {@link #withPrefix(String)} without copying them. The settings can be
+ * {@link #encode() encoded} into a binary block and be read directly from such
+ * a block again, e.g. from a memory-mapped {@link SharedSettingsSegment}.
+ *
+ * @author JonasDoe
+ */
+final class FrozenSettings extends AbstractMap<String, String> {
+    /** Keys and values of all settings, encoded as UTF-8 */
+    private final ByteBuffer content;
+    /**
+     * Where the keys and values begin in the {@link #content}. The key of the
+     * setting {@code i} spans from {@code offsets.get(2 * i)} to
+     * {@code offsets.get(2 * i + 1)}, its value from there to
+     * {@code offsets.get(2 * i + 2)}.
+     */
+    private final IntBuffer offsets;
+    /** Index of the first setting of this view */
+    private final int from;
+    /** Index after the last setting of this view */
+    private final int to;
+    /** Number of bytes at the beginning of each key which are hidden by this view */
+    private final int skip;
+    
+    private FrozenSettings(ByteBuffer content, IntBuffer offsets, int from, int to, int skip) {
+        this.content = content;
+        this.offsets = offsets;
+        this.from = from;
+        this.to = to;
+        this.skip = skip;
+    }
+    
+    /**
+     * Creates a frozen copy of the specified settings. {@code null} values are
+     * stored as empty {@code String}s.
+     *
+     * @param settings
+     *         to be copied
+     * @return the frozen settings
+     */
+    static FrozenSettings of(Map<String, String> settings) {
+        byte[][] encoded = new byte[settings.size() * 2][];
+        Integer[] order = new Integer[settings.size()];
+        int index = 0;
+        int length = 0;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            String value = setting.getValue() == null ? "" : setting.getValue();
+            encoded[2 * index] = setting.getKey().getBytes(StandardCharsets.UTF_8);
+            encoded[2 * index + 1] = value.getBytes(StandardCharsets.UTF_8);
+            length += encoded[2 * index].length + encoded[2 * index + 1].length;
+            order[index] = index;
+            index++;
+        }
+        // the order of UTF-8 bytes equals the order of code points
+        Arrays.sort(order, (first, second) -> Arrays.compareUnsigned(encoded[2 * first], encoded[2 * second]));
+        byte[] content = new byte[length];
+        int[] offsets = new int[order.length * 2 + 1];
+        int position = 0;
+        for (int i = 0; i < order.length; i++) {
+            for (int part = 0; part < 2; part++) {
+                byte[] bytes = encoded[2 * order[i] + part];
+                offsets[2 * i + part] = position;
+                System.arraycopy(bytes, 0, content, position, bytes.length);
+                position += bytes.length;
+            }
+        }
+        offsets[order.length * 2] = position;
+        return new FrozenSettings(ByteBuffer.wrap(content), IntBuffer.wrap(offsets), 0, order.length, 0);
+    }
+    
+    /**
+     * Reads frozen settings from a block created by {@link #encode()}. The
+     * settings are not copied, so the block must not be changed afterwards.
+     *
+     * @param block
+     *         holding the encoded settings from its position to its limit
+     * @return the frozen settings backed by the block
+     */
+    static FrozenSettings decode(ByteBuffer block) {
+        int count = block.getInt(block.position());
+        int contentStart = block.position() + Integer.BYTES * (count * 2 + 2);
+        IntBuffer offsets = slice(block, block.position() + Integer.BYTES, contentStart).asIntBuffer();
+        return new FrozenSettings(slice(block, contentStart, block.limit()), offsets, 0, count, 0);
+    }
+    
+    /**
+     * Encodes the settings into a binary block: the number of settings, the
+     * {@link #offsets} and the {@link #content}.
+     *
+     * @return the block, ready to be read
+     */
+    ByteBuffer encode() {
+        if (from != 0 || skip != 0 || to != offsets.limit() / 2) return of(this).encode();
+        ByteBuffer block = ByteBuffer.allocate(Integer.BYTES * (offsets.limit() + 1) + content.limit());
+        block.putInt(size());
+        for (int i = 0; i < offsets.limit(); i++) {
+            block.putInt(offsets.get(i));
+        }
+        block.put(content.duplicate().clear());
+        return block.flip();
+    }
+    
+    /**
+     * Returns a view of all settings beginning with the specified prefix. The
+     * prefix is removed from the keys of the view. The settings are not
+     * copied.
+     *
+     * @param prefix
+     *         of the settings of interest, e.g. "ftp."
+     * @return the settings beginning with the prefix
+     */
+    FrozenSettings withPrefix(String prefix) {
+        byte[] encodedPrefix = prefix.getBytes(StandardCharsets.UTF_8);
+        int first = bound(encodedPrefix, true, false);
+        int last = bound(encodedPrefix, true, true);
+        return new FrozenSettings(content, offsets, first, last, skip + encodedPrefix.length);
+    }
+    
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : decode(offsets.get(2 * index + 1), offsets.get(2 * index + 2));
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+    
+    @Override
+    public int size() {
+        return to - from;
+    }
+    
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next = from;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next < to;
+                    }
+                    
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= to) throw new NoSuchElementException();
+                        int index = next++;
+                        int keyStart = offsets.get(2 * index) + skip;
+                        int valueStart = offsets.get(2 * index + 1);
+                        return new SimpleImmutableEntry<>(decode(keyStart, valueStart),
+                                decode(valueStart, offsets.get(2 * index + 2)));
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return FrozenSettings.this.size();
+            }
+        };
+    }
+    
+    /**
+     * @return the index of the setting with the specified key, or {@code -1}
+     * if there is none
+     */
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) return -1;
+        byte[] encodedKey = ((String) key).getBytes(StandardCharsets.UTF_8);
+        int index = bound(encodedKey, false, false);
+        return index < to && compare(index, encodedKey, false) == 0 ? index : -1;
+    }
+    
+    /**
+     * Searches the first setting whose key is greater than (or, if
+     * {@code inclusive} is {@code false}, equal to) the specified one.
+     *
+     * @param key
+     *         to be searched
+     * @param asPrefix
+     *         whether only the beginning of the keys will be compared,
+     *         so all keys beginning with {@code key} are considered equal
+     * @param inclusive
+     *         whether equal keys will be skipped
+     * @return the index of the found setting, or {@link #to} if there is none
+     */
+    private int bound(byte[] key, boolean asPrefix, boolean inclusive) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, key, asPrefix);
+            if (comparison < 0 || inclusive && comparison == 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+    
+    private int compare(int index, byte[] key, boolean asPrefix) {
+        int start = offsets.get(2 * index) + skip;
+        int end = offsets.get(2 * index + 1);
+        if (asPrefix) end = Math.min(end, start + key.length);
+        if (content.hasArray()) {
+            int offset = content.arrayOffset();
+            return Arrays.compareUnsigned(content.array(), offset + start, offset + end, key, 0, key.length);
+        }
+        for (int i = 0; i < end - start && i < key.length; i++) {
+            int comparison = Byte.compareUnsigned(content.get(start + i), key[i]);
+            if (comparison != 0) return comparison;
+        }
+        return Integer.compare(end - start, key.length);
+    }
+    
+    private String decode(int start, int end) {
+        if (content.hasArray()) return new String(content.array(), content.arrayOffset() + start, end - start,
+                StandardCharsets.UTF_8);
+        byte[] bytes = new byte[end - start];
+        content.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static ByteBuffer slice(ByteBuffer buffer, int start, int end) {
+        return buffer.duplicate().limit(end).position(start).slice();
+    }
+}
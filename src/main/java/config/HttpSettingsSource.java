@@ -0,0 +1,114 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A {@link SettingsSource} served via HTTP, e.g. by a config service. Requests
+ * are conditional: the {@code ETag} and {@code Last-Modified} headers of the
+ * last successful read are sent back as {@code If-None-Match} and
+ * {@code If-Modified-Since}, so an unchanged payload is answered with
+ * {@code 304 Not Modified} and neither downloaded nor parsed again. The body
+ * is passed to the parser while it is downloaded, as long as the response
+ * declares its charset.
+ *
+ * @author JonasDoe
+ */
+public final class HttpSettingsSource implements SettingsSource {
+    /** Used if no {@link HttpClient} is passed */
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private final HttpClient client;
+    private final URI uri;
+    private final Duration timeout;
+    /** {@code ETag} of the last successful read, {@code null} if unknown */
+    private String entityTag;
+    /** {@code Last-Modified} of the last successful read, {@code null} if unknown */
+    private String lastModified;
+    
+    /**
+     * Creates a source for the specified {@code URI} with an own
+     * {@link HttpClient}.
+     *
+     * @param uri
+     *         serving the settings in the form of {@code ("name=value")}
+     *         lines
+     */
+    public HttpSettingsSource(URI uri) {
+        this(HttpClient.newBuilder().connectTimeout(DEFAULT_TIMEOUT).build(), uri, DEFAULT_TIMEOUT);
+    }
+    
+    /**
+     * Creates a source for the specified {@code URI}.
+     *
+     * @param client
+     *         sending the requests, may be shared with other sources
+     * @param uri
+     *         serving the settings in the form of {@code ("name=value")}
+     *         lines
+     * @param timeout
+     *         of each request
+     */
+    public HttpSettingsSource(HttpClient client, URI uri, Duration timeout) {
+        this.client = client;
+        this.uri = uri;
+        this.timeout = timeout;
+    }
+    
+    @Override
+    public String name() {
+        return uri.toString();
+    }
+    
+    @Override
+    public synchronized boolean readIfChanged(ContentParser parser) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+        if (entityTag != null) request.header("If-None-Match", entityTag);
+        if (lastModified != null) request.header("If-Modified-Since", lastModified);
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting " + uri);
+        }
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 304) return false;
+            if (response.statusCode() != 200) throw new IOException(
+                    "Requesting " + uri + " failed with status " + response.statusCode());
+            parser.parse(body, charsetOf(response));
+            entityTag = response.headers().firstValue("ETag").orElse(null);
+            lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+            return true;
+        }
+    }
+    
+    /**
+     * @return the charset declared by the {@code Content-Type} header, or
+     * {@code null} if there is none or it is not supported
+     */
+    private static Charset charsetOf(HttpResponse<?> response) {
+        Optional<String> contentType = response.headers().firstValue("Content-Type");
+        if (contentType.isEmpty()) return null;
+        for (String parameter : contentType.get().split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                try {
+                    return Charset.forName(trimmed.substring(8).replace("\"", ""));
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
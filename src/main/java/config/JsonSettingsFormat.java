@@ -0,0 +1,217 @@
+package config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.BiConsumer;
+
+/**
+ * Streaming JSON parser of {@link SettingsFormat#JSON}. It reads the source
+ * through a small buffer and only holds the name of the current value, so its
+ * memory does not depend on the size of the source.
+ *
+ * @author JonasDoe
+ */
+final class JsonSettingsFormat implements SettingsFormat {
+    
+    @Override
+    public void parse(Reader source, BiConsumer<String, String> settings) throws IOException {
+        new Parser(source, settings).parseDocument();
+    }
+    
+    /**
+     * Parses a single source.
+     */
+    private static final class Parser {
+        private static final int END = -1;
+        private final Reader source;
+        private final BiConsumer<String, String> settings;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        /** Number of chars read before the current buffer, for error messages */
+        private long consumed;
+        /** Dotted name of the current value */
+        private final StringBuilder path = new StringBuilder();
+        
+        private Parser(Reader source, BiConsumer<String, String> settings) {
+            this.source = source;
+            this.settings = settings;
+        }
+        
+        private void parseDocument() throws IOException {
+            if (nextToken() != '{') throw malformed("expected an object");
+            parseObject();
+            if (nextToken() != END) throw malformed("unexpected content after the object");
+        }
+        
+        /**
+         * Parses the members of an object whose {@code '{'} has been read.
+         */
+        private void parseObject() throws IOException {
+            int next = nextToken();
+            if (next == '}') return;
+            while (true) {
+                if (next != '"') throw malformed("expected a name");
+                String name = readString();
+                if (nextToken() != ':') throw malformed("expected ':'");
+                int length = path.length();
+                if (length > 0) path.append('.');
+                path.append(name);
+                parseValue(nextToken());
+                path.setLength(length);
+                next = nextToken();
+                if (next == '}') return;
+                if (next != ',') throw malformed("expected ',' or '}'");
+                next = nextToken();
+            }
+        }
+        
+        /**
+         * Parses the elements of a list whose {@code '['} has been read. Plain
+         * values are joined into one setting, objects and lists are named by
+         * their index.
+         */
+        private void parseArray() throws IOException {
+            StringBuilder values = null;
+            int index = 0;
+            int next = nextToken();
+            if (next == ']') {
+                settings.accept(path.toString(), "");
+                return;
+            }
+            while (true) {
+                if (next == '{' || next == '[') {
+                    int length = path.length();
+                    path.append('.').append(index);
+                    parseValue(next);
+                    path.setLength(length);
+                } else {
+                    if (values == null) values = new StringBuilder();
+                    else values.append(CollectionConverter.ELEMENT_DELIMITER);
+                    values.append(ConfigUtils.escape(readValue(next), CollectionConverter.ELEMENT_DELIMITER));
+                }
+                index++;
+                next = nextToken();
+                if (next == ']') break;
+                if (next != ',') throw malformed("expected ',' or ']'");
+                next = nextToken();
+            }
+            if (values != null) settings.accept(path.toString(), values.toString());
+        }
+        
+        private void parseValue(int first) throws IOException {
+            if (first == '{') parseObject();
+            else if (first == '[') parseArray();
+            else settings.accept(path.toString(), readValue(first));
+        }
+        
+        /**
+         * Reads a string, number, {@code boolean} or {@code null}, the latter
+         * becoming an empty {@code String}.
+         */
+        private String readValue(int first) throws IOException {
+            if (first == '"') return readString();
+            StringBuilder literal = new StringBuilder();
+            int next = first;
+            while (next != END && next != ',' && next != '}' && next != ']' && !Character.isWhitespace(next)) {
+                literal.append((char) next);
+                next = read();
+            }
+            if (next != END) position--;
+            String value = literal.toString();
+            if (value.equals("null")) return "";
+            if (value.equals("true") || value.equals("false") || isNumber(value)) return value;
+            throw malformed("unexpected value '" + value + "'");
+        }
+        
+        /**
+         * Reads a string whose opening quote has been read.
+         */
+        private String readString() throws IOException {
+            StringBuilder string = new StringBuilder();
+            while (true) {
+                int next = read();
+                if (next == '"') return string.toString();
+                if (next == END) throw malformed("unterminated string");
+                if (next != '\\') {
+                    string.append((char) next);
+                    continue;
+                }
+                int escaped = read();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        string.append((char) escaped);
+                        break;
+                    case 'b':
+                        string.append('\b');
+                        break;
+                    case 'f':
+                        string.append('\f');
+                        break;
+                    case 'n':
+                        string.append('\n');
+                        break;
+                    case 'r':
+                        string.append('\r');
+                        break;
+                    case 't':
+                        string.append('\t');
+                        break;
+                    case 'u':
+                        int codeUnit = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) throw malformed("invalid unicode escape");
+                            codeUnit = codeUnit * 16 + digit;
+                        }
+                        string.append((char) codeUnit);
+                        break;
+                    default:
+                        throw malformed("invalid escape");
+                }
+            }
+        }
+        
+        private static boolean isNumber(String value) {
+            int i = value.startsWith("-") ? 1 : 0;
+            if (i == value.length()) return false;
+            boolean digits = false;
+            for (; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= '0' && c <= '9') digits = true;
+                else if (c != '.' && c != 'e' && c != 'E' && c != '+' && c != '-') return false;
+            }
+            return digits;
+        }
+        
+        /**
+         * @return the next char which is no whitespace, or {@link #END}
+         */
+        private int nextToken() throws IOException {
+            int next;
+            do {
+                next = read();
+            } while (next != END && Character.isWhitespace(next));
+            return next;
+        }
+        
+        private int read() throws IOException {
+            if (position == limit) {
+                consumed += limit;
+                limit = source.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return END;
+                }
+            }
+            return buffer[position++];
+        }
+        
+        private IOException malformed(String problem) {
+            return new IOException("Malformed JSON at char " + (consumed + position) + ": " + problem);
+        }
+    }
+}
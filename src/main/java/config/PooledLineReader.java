@@ -0,0 +1,292 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Splits settings sources into lines. The char and byte buffers needed for
+ * reading and decoding are pooled per thread, so reading a source does not
+ * allocate new buffers each time. A buffer is taken out of the pool while it
+ * is in use, so nested reads (e.g. of an included source) get their own one.
+ *
+ * @author JonasDoe
+ */
+final class PooledLineReader {
+    /** Size of the pooled char and byte buffers */
+    private static final int BUFFER_SIZE = 8192;
+    /** Byte buffers grown beyond this size for reading a whole source won't be pooled */
+    private static final int MAX_POOLED_SIZE = 1 << 20;
+    /** Pooled buffers for chars */
+    private static final ThreadLocal<char[]> CHAR_BUFFERS = new ThreadLocal<>();
+    /** Pooled buffers for bytes */
+    private static final ThreadLocal<byte[]> BYTE_BUFFERS = new ThreadLocal<>();
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private PooledLineReader() {
+    }
+    
+    /**
+     * Consumes the lines of a source.
+     */
+    interface LineConsumer {
+        /**
+         * @param line
+         *         without any line terminators
+         * @throws IOException
+         *         if the line leads to further reading which fails
+         */
+        void accept(String line) throws IOException;
+    }
+    
+    /**
+     * Consumes the whole content of a source.
+     *
+     * @param <T>
+     *         of the result
+     */
+    interface ContentFunction<T> {
+        /**
+         * @param content
+         *         holding the content, must not be used after returning
+         * @param length
+         *         of the content
+         * @return the result of the processing
+         * @throws IOException
+         *         if processing the content fails
+         */
+        T apply(byte[] content, int length) throws IOException;
+    }
+    
+    /**
+     * Reads all lines of a {@link Reader}. The {@code Reader} won't be
+     * closed.
+     *
+     * @param reader
+     *         to be read
+     * @param consumer
+     *         of the lines
+     * @throws IOException
+     *         if reading fails
+     */
+    static void readLines(Reader reader, LineConsumer consumer) throws IOException {
+        char[] chars = acquireChars();
+        try {
+            LineSplitter splitter = new LineSplitter(consumer);
+            int read;
+            while ((read = reader.read(chars)) >= 0) {
+                splitter.accept(chars, 0, read);
+            }
+            splitter.finish();
+        } finally {
+            CHAR_BUFFERS.set(chars);
+        }
+    }
+    
+    /**
+     * Reads all lines of an {@link InputStream}, decoding them on the fly.
+     * Malformed input is replaced, like an {@code InputStreamReader} does. The
+     * {@code InputStream} won't be closed.
+     *
+     * @param input
+     *         to be read
+     * @param encoding
+     *         of the content
+     * @param consumer
+     *         of the lines
+     * @throws IOException
+     *         if reading fails
+     */
+    static void readLines(InputStream input, Charset encoding, LineConsumer consumer) throws IOException {
+        byte[] bytes = acquireBytes();
+        try {
+            ByteBuffer pending = ByteBuffer.wrap(bytes, 0, 0);
+            Decoder decoder = new Decoder(encoding, consumer);
+            int read;
+            while ((read = input.read(bytes, pending.limit(), bytes.length - pending.limit())) >= 0) {
+                pending.limit(pending.limit() + read);
+                decoder.decode(pending, false);
+                pending.compact().flip();
+            }
+            decoder.decode(pending, true);
+        } finally {
+            BYTE_BUFFERS.set(bytes);
+        }
+    }
+    
+    /**
+     * Reads all lines of already loaded content.
+     *
+     * @param content
+     *         holding the content
+     * @param length
+     *         of the content
+     * @param encoding
+     *         of the content
+     * @param consumer
+     *         of the lines
+     * @throws IOException
+     *         if the consumer fails
+     */
+    static void readLines(byte[] content, int length, Charset encoding, LineConsumer consumer) throws IOException {
+        new Decoder(encoding, consumer).decode(ByteBuffer.wrap(content, 0, length), true);
+    }
+    
+    /**
+     * Reads the whole content of an {@link InputStream} into a pooled buffer
+     * and processes it, e.g. to parse it several times with different
+     * encodings. The {@code InputStream} won't be closed.
+     *
+     * @param input
+     *         to be read
+     * @param function
+     *         processing the content
+     * @param <T>
+     *         of the result
+     * @return the result of the processing
+     * @throws IOException
+     *         if reading or processing fails
+     */
+    static <T> T readFully(InputStream input, ContentFunction<T> function) throws IOException {
+        byte[] bytes = acquireBytes();
+        try {
+            int length = 0;
+            int read;
+            while ((read = input.read(bytes, length, bytes.length - length)) >= 0) {
+                length += read;
+                if (length == bytes.length) {
+                    byte[] grown = new byte[bytes.length * 2];
+                    System.arraycopy(bytes, 0, grown, 0, length);
+                    bytes = grown;
+                }
+            }
+            return function.apply(bytes, length);
+        } finally {
+            if (bytes.length <= MAX_POOLED_SIZE) BYTE_BUFFERS.set(bytes);
+        }
+    }
+    
+    private static char[] acquireChars() {
+        char[] chars = CHAR_BUFFERS.get();
+        CHAR_BUFFERS.set(null);
+        return chars == null ? new char[BUFFER_SIZE] : chars;
+    }
+    
+    private static byte[] acquireBytes() {
+        byte[] bytes = BYTE_BUFFERS.get();
+        BYTE_BUFFERS.set(null);
+        return bytes == null ? new byte[BUFFER_SIZE] : bytes;
+    }
+    
+    /**
+     * Decodes bytes into a pooled char buffer and passes the chars to a
+     * {@link LineSplitter}.
+     */
+    private static final class Decoder {
+        private final CharsetDecoder decoder;
+        private final LineSplitter splitter;
+        
+        private Decoder(Charset encoding, LineConsumer consumer) {
+            decoder = encoding.newDecoder()
+                              .onMalformedInput(CodingErrorAction.REPLACE)
+                              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            splitter = new LineSplitter(consumer);
+        }
+        
+        /**
+         * Decodes as much of the input as possible. If it's the end of the
+         * input, the decoder gets flushed and the last line gets passed on.
+         */
+        private void decode(ByteBuffer input, boolean endOfInput) throws IOException {
+            char[] chars = acquireChars();
+            try {
+                CharBuffer output = CharBuffer.wrap(chars);
+                CoderResult result;
+                do {
+                    result = decoder.decode(input, output, endOfInput);
+                    drain(output);
+                } while (result.isOverflow());
+                if (result.isError()) result.throwException();
+                if (endOfInput) {
+                    while (decoder.flush(output).isOverflow()) drain(output);
+                    drain(output);
+                    splitter.finish();
+                }
+            } finally {
+                CHAR_BUFFERS.set(chars);
+            }
+        }
+        
+        private void drain(CharBuffer output) throws IOException {
+            output.flip();
+            splitter.accept(output.array(), output.position(), output.remaining());
+            output.clear();
+        }
+    }
+    
+    /**
+     * Assembles lines from chunks of chars. Lines are terminated by
+     * {@code \n}, {@code \r} or {@code \r\n}.
+     */
+    private static final class LineSplitter {
+        private final LineConsumer consumer;
+        /** Beginning of a line which spans several chunks, {@code null} if there is none */
+        private StringBuilder pending;
+        /** Whether the last chunk ended with {@code \r}, so a leading {@code \n} must be skipped */
+        private boolean skipLineFeed;
+        
+        private LineSplitter(LineConsumer consumer) {
+            this.consumer = consumer;
+        }
+        
+        private void accept(char[] chars, int offset, int length) throws IOException {
+            int end = offset + length;
+            int start = offset;
+            for (int i = offset; i < end; i++) {
+                char current = chars[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (current == '\n') {
+                        start = i + 1;
+                        continue;
+                    }
+                }
+                if (current == '\n' || current == '\r') {
+                    emit(chars, start, i);
+                    start = i + 1;
+                    skipLineFeed = current == '\r';
+                }
+            }
+            if (start < end) {
+                if (pending == null) pending = new StringBuilder();
+                pending.append(chars, start, end - start);
+            }
+        }
+        
+        private void finish() throws IOException {
+            if (pending != null && pending.length() > 0) {
+                String line = pending.toString();
+                pending = null;
+                consumer.accept(line);
+            }
+        }
+        
+        private void emit(char[] chars, int start, int end) throws IOException {
+            String line;
+            if (pending == null || pending.length() == 0) line = new String(chars, start, end - start);
+            else {
+                line = pending.append(chars, start, end - start).toString();
+                pending.setLength(0);
+            }
+            consumer.accept(line);
+        }
+    }
+}
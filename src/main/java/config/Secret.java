@@ -0,0 +1,106 @@
+package config;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A setting holding an encoded value, e.g. a base64- or AES-encoded password.
+ * The value is decoded lazily on the first call of {@link #reveal()} and kept
+ * afterwards, so unused secrets are never decoded. Since each fill of a
+ * {@link Config} creates new {@code Secret}s, decoded values never outlive the
+ * settings they were decoded from.
+ * <p>
+ * The decoder is either specified via {@link Setting#decoder()} or by the value
+ * itself, prefixed with {@value #ENCODED_PREFIX} and the name of the decoder,
+ * e.g. {@code password=enc:base64:c2VjcmV0}. Decoders are registered via
+ * {@link ConfigPreparer#registerDecoder(String, Function)}, {@code "base64"} is
+ * available by default. A {@code Secret} is stored in its encoded form and
+ * {@link #toString()} won't reveal it.
+ *
+ * @author JonasDoe
+ */
+public final class Secret {
+    /** Prefix of values naming their decoder, followed by the name and {@code ':'} */
+    public static final String ENCODED_PREFIX = "enc:";
+    /** The setting as it is stored, including a {@value #ENCODED_PREFIX} prefix if there is one */
+    private final String stored;
+    /** The encoded value without prefix */
+    private final String encoded;
+    private final Function<String, String> decoder;
+    /** The decoded value, {@code null} until it is revealed */
+    private volatile String decoded;
+    
+    /**
+     * @param stored
+     *         the setting as it is stored
+     * @param encoded
+     *         the encoded value without prefix
+     * @param decoder
+     *         decoding the value
+     */
+    Secret(String stored, String encoded, Function<String, String> decoder) {
+        this.stored = stored;
+        this.encoded = encoded;
+        this.decoder = decoder;
+    }
+    
+    /**
+     * Creates a {@code Secret} which is not encoded, e.g. for
+     * {@link Config#update(java.util.function.Consumer)}.
+     *
+     * @param value
+     *         of the secret
+     * @return the {@code Secret}
+     */
+    public static Secret of(String value) {
+        Secret secret = new Secret(value, value, Function.identity());
+        secret.decoded = value;
+        return secret;
+    }
+    
+    /**
+     * Decodes the value on the first call and returns the decoded value on
+     * each following one. A failing decoder will be called again next time.
+     *
+     * @return the decoded value
+     * @throws IllegalArgumentException
+     *         if the value cannot be decoded
+     */
+    public String reveal() throws IllegalArgumentException {
+        String value = decoded;
+        if (value == null) {
+            synchronized (this) {
+                value = decoded;
+                if (value == null) {
+                    value = decoder.apply(encoded);
+                    decoded = value;
+                }
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * @return the setting as it is stored, i.e. still encoded
+     */
+    public String stored() {
+        return stored;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return stored.equals(((Secret) o).stored);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(stored);
+    }
+    
+    @Override
+    public String toString() {
+        return "******";
+    }
+}
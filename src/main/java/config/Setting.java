@@ -30,4 +30,21 @@ public @interface Setting {
     /** Determines whether this setting is optional */
     boolean isOptional() default false;
     
+    /**
+     * The unit of a {@code long} or {@code int} field holding a duration or a
+     * data size, e.g. {@code "ms"} or {@code "MiB"}. If set, the setting may
+     * be given with any unit of the same kind, e.g. {@code 30s}, and will be
+     * converted into this unit. Numbers without unit are taken as they are.
+     */
+    String unit() default "";
+    
+    /**
+     * The name of the decoder of a {@link Secret} field, e.g.
+     * {@code "base64"}, see
+     * {@link ConfigPreparer#registerDecoder(String, java.util.function.Function)}.
+     * Values prefixed with {@value Secret#ENCODED_PREFIX} and a decoder name
+     * are decoded by that one instead.
+     */
+    String decoder() default "";
+    
 }
\ No newline at end of file
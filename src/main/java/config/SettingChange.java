@@ -0,0 +1,112 @@
+package config;
+
+import java.util.Objects;
+
+/**
+ * Describes the change of a single setting, as emitted by
+ * {@link Config#changes()} and {@link ConfigPreparer#changes()}. Instances are
+ * immutable.
+ *
+ * @author JonasDoe
+ */
+public final class SettingChange {
+    /** Source of changes caused by {@link ConfigPreparer#fillConfig(Config)} */
+    public static final String FILL_SOURCE = "fillConfig";
+    /** Source of changes caused by settings added as {@code Map} or single values */
+    public static final String MAP_SOURCE = "map";
+    /** Source of changes caused by settings read from streams, readers or channels */
+    public static final String STREAM_SOURCE = "stream";
+    /** Source of changes caused by {@link Config#update(java.util.function.Consumer)} */
+    public static final String UPDATE_SOURCE = "update";
+    /** Name of the changed setting */
+    private final String key;
+    /** Value before the change, {@code null} if the setting did not exist */
+    private final String oldValue;
+    /** Value after the change, {@code null} if the setting was removed */
+    private final String newValue;
+    /** Describes where the change came from, e.g. the path of the read file */
+    private final String source;
+    
+    /**
+     * Creates a new {@code SettingChange}.
+     *
+     * @param key
+     *         name of the changed setting
+     * @param oldValue
+     *         value before the change, {@code null} if the setting did not
+     *         exist
+     * @param newValue
+     *         value after the change, {@code null} if the setting was
+     *         removed
+     * @param source
+     *         where the change came from
+     */
+    public SettingChange(String key, String oldValue, String newValue, String source) {
+        this.key = Objects.requireNonNull(key);
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.source = source;
+    }
+    
+    /**
+     * @return the name of the changed setting
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * @return the value before the change, {@code null} if the setting did not
+     * exist
+     */
+    public String getOldValue() {
+        return oldValue;
+    }
+    
+    /**
+     * @return the value after the change, {@code null} if the setting was
+     * removed
+     */
+    public String getNewValue() {
+        return newValue;
+    }
+    
+    /**
+     * @return where the change came from, e.g. the path of the read file or
+     * {@link #MAP_SOURCE}
+     */
+    public String getSource() {
+        return source;
+    }
+    
+    /**
+     * Creates a copy of this change whose key has the specified prefix
+     * removed.
+     *
+     * @param prefix
+     *         the key starts with
+     * @return the change relative to the prefix
+     */
+    SettingChange withoutPrefix(String prefix) {
+        return new SettingChange(key.substring(prefix.length()), oldValue, newValue, source);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SettingChange)) return false;
+        SettingChange that = (SettingChange) o;
+        return key.equals(that.key) && Objects.equals(oldValue, that.oldValue) && Objects.equals(newValue,
+                that.newValue) && Objects.equals(source, that.source);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, oldValue, newValue, source);
+    }
+    
+    @Override
+    public String toString() {
+        return key + ": " + oldValue + " -> " + newValue + " (" + source + ")";
+    }
+}
@@ -0,0 +1,145 @@
+package config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Emits batches of {@link SettingChange}s to {@link Flow.Subscriber}s. Relies
+ * on a {@link SubmissionPublisher}, so each subscriber gets its own bounded
+ * buffer and publishing blocks while a subscriber's buffer is full. The
+ * {@code SubmissionPublisher} is only created once the first subscriber
+ * arrives, and changes are not even computed as long as there is none. It is
+ * never closed, as the settings may change as long as their owner exists, so
+ * subscribers don't receive {@link Flow.Subscriber#onComplete()}.
+ *
+ * @author JonasDoe
+ */
+final class SettingChangePublisher {
+    /** Delivers the batches, {@code null} until the first subscription */
+    private volatile SubmissionPublisher<List<SettingChange>> publisher;
+    
+    /**
+     * Returns a {@link Flow.Publisher} emitting the batches restricted to
+     * settings beginning with the specified prefix. The prefix is removed from
+     * the emitted keys, and batches without any matching change are skipped.
+     *
+     * @param prefix
+     *         of the settings of interest, e.g. the prefix of a
+     *         {@link NestedConfig}. The empty {@code String} matches all
+     *         settings.
+     * @return the {@code Flow.Publisher}
+     */
+    Flow.Publisher<List<SettingChange>> publisher(String prefix) {
+        Objects.requireNonNull(prefix);
+        return subscriber -> {
+            if (prefix.isEmpty()) getPublisher().subscribe(subscriber);
+            else getPublisher().subscribe(new PrefixSubscriber(subscriber, prefix));
+        };
+    }
+    
+    /**
+     * @return {@code true} if anyone is interested in the changes
+     */
+    boolean hasSubscribers() {
+        SubmissionPublisher<List<SettingChange>> current = publisher;
+        return current != null && current.hasSubscribers();
+    }
+    
+    /**
+     * Emits the specified changes as one batch, if there are any changes and
+     * subscribers.
+     *
+     * @param changes
+     *         to be emitted
+     */
+    void publish(List<SettingChange> changes) {
+        if (!changes.isEmpty() && hasSubscribers()) publisher.submit(List.copyOf(changes));
+    }
+    
+    /**
+     * Emits the differences between the specified settings as one batch, if
+     * there are any subscribers.
+     *
+     * @param before
+     *         the settings before the change
+     * @param after
+     *         the settings after the change
+     * @param source
+     *         where the change came from
+     */
+    void publishDifferences(Map<String, String> before, Map<String, String> after, String source) {
+        if (!hasSubscribers()) return;
+        List<SettingChange> changes = new ArrayList<>();
+        after.forEach((key, value) -> {
+            String previous = before.get(key);
+            if (!Objects.equals(previous, value)) changes.add(new SettingChange(key, previous, value, source));
+        });
+        before.forEach((key, value) -> {
+            if (!after.containsKey(key)) changes.add(new SettingChange(key, value, null, source));
+        });
+        publish(changes);
+    }
+    
+    /**
+     * @return the {@link SubmissionPublisher}, created if necessary
+     */
+    private SubmissionPublisher<List<SettingChange>> getPublisher() {
+        SubmissionPublisher<List<SettingChange>> current = publisher;
+        if (current == null) {
+            synchronized (this) {
+                current = publisher;
+                if (current == null) publisher = current = new SubmissionPublisher<>();
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Passes only changes of settings beginning with a certain prefix on.
+     * Batches without any such changes are replaced by a new request, so the
+     * demand of the downstream {@link Flow.Subscriber} is kept intact.
+     */
+    private static final class PrefixSubscriber implements Flow.Subscriber<List<SettingChange>> {
+        /** Receives the filtered batches */
+        private final Flow.Subscriber<? super List<SettingChange>> downstream;
+        /** Prefix of the settings of interest */
+        private final String prefix;
+        /** Subscription to the unfiltered batches */
+        private Flow.Subscription subscription;
+        
+        private PrefixSubscriber(Flow.Subscriber<? super List<SettingChange>> downstream, String prefix) {
+            this.downstream = downstream;
+            this.prefix = prefix;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(subscription);
+        }
+        
+        @Override
+        public void onNext(List<SettingChange> changes) {
+            List<SettingChange> matching = new ArrayList<>();
+            for (SettingChange change : changes) {
+                if (change.getKey().startsWith(prefix)) matching.add(change.withoutPrefix(prefix));
+            }
+            if (matching.isEmpty()) subscription.request(1);
+            else downstream.onNext(List.copyOf(matching));
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            downstream.onError(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+}
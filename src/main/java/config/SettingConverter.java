@@ -15,6 +15,12 @@ public class SettingConverter {
      * Converts a {@code String} representation to the represened {@code Object}
      */
     public final Function<String, Object> toObject;
+    /**
+     * Whether the converted {@code Objects} are immutable and depend on the
+     * {@code String} representation only, so they may be cached and shared,
+     * see {@link ConfigPreparer#withConversionCache(boolean)}
+     */
+    public final boolean cacheable;
     
     /**
      * Creates a new {@code SettingsConverter} based on the two specified
@@ -28,7 +34,27 @@ public class SettingConverter {
      *         {@code String} representation
      */
     public SettingConverter(Function<Object, String> toString, Function<String, Object> toConfigValue) {
+        this(toString, toConfigValue, false);
+    }
+    
+    /**
+     * Creates a new {@code SettingsConverter} based on the two specified
+     * conversion {@code Functions}.
+     *
+     * @param toString
+     *         {@code Function} which converts a {@code String}
+     *         representation to the represented config value/setting
+     * @param toConfigValue
+     *         {@code Function} which converts a value/setting from the config to its
+     *         {@code String} representation
+     * @param cacheable
+     *         whether the converted values are immutable and depend on the
+     *         {@code String} representation only, so they may be cached
+     */
+    public SettingConverter(Function<Object, String> toString, Function<String, Object> toConfigValue,
+                            boolean cacheable) {
         this.toString = toString;
         this.toObject = toConfigValue;
+        this.cacheable = cacheable;
     }
 }
@@ -0,0 +1,45 @@
+package config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.BiConsumer;
+
+/**
+ * A format of settings sources other than the {@code ("name=value")} lines,
+ * see {@link ConfigPreparer#addSettingsSource(Reader, SettingsFormat)}.
+ * Nested structures are flattened into dotted setting names while they are
+ * read, e.g. {@code {"db": {"port": 5432}}} becomes {@code db.port=5432}, so
+ * they map onto the prefixes of {@link NestedConfig}s. Lists of plain values
+ * become settings in the format of {@code Collection} settings.
+ *
+ * @author JonasDoe
+ */
+public interface SettingsFormat {
+    /**
+     * JSON, whose root must be an object. Values of objects within lists are
+     * named by their index, e.g. {@code servers.0.host}. {@code null} becomes
+     * an empty setting.
+     */
+    SettingsFormat JSON = new JsonSettingsFormat();
+    /**
+     * A subset of YAML: nested block mappings, block sequences of plain values,
+     * flow sequences like {@code [a, b]}, quoted values and comments. Other
+     * features, e.g. anchors, multi-line values or flow mappings, are not
+     * supported.
+     */
+    SettingsFormat YAML = new YamlSettingsFormat();
+    
+    /**
+     * Parses the settings of a source while reading it, without building a
+     * document tree.
+     *
+     * @param source
+     *         to be read, won't be closed
+     * @param settings
+     *         consuming the flattened names and values of the settings in the
+     *         order of their appearance
+     * @throws IOException
+     *         if reading fails or the content is malformed
+     */
+    void parse(Reader source, BiConsumer<String, String> settings) throws IOException;
+}
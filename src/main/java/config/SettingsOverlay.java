@@ -0,0 +1,179 @@
+package config;
+
+import java.util.*;
+
+/**
+ * A copy-on-write {@link Map} holding settings. It shares an immutable base
+ * {@code Map} (which may be referenced by many overlays at once) and only
+ * stores its own overrides, so the memory of derived settings scales with the
+ * number of changes and not with the total number of keys. Lookups check the
+ * overrides first and fall back to the base afterwards, so they stay
+ * {@code O(1)} for hash based bases.
+ *
+ * @author JonasDoe
+ */
+final class SettingsOverlay extends AbstractMap<String, String> {
+    /** Marks a setting of the base which has been removed in this overlay */
+    private static final String REMOVED = new String("");
+    /**
+     * Shared settings, must never be modified. Always read after
+     * {@link #overrides}, since {@link #rebase()} replaces it first.
+     */
+    private volatile Map<String, String> base;
+    /** Settings added or changed (or removed, see {@link #REMOVED}) by this overlay */
+    private volatile Map<String, String> overrides;
+    
+    /**
+     * Creates an overlay on top of the specified settings.
+     *
+     * @param base
+     *         the settings to be shared. Must not be modified afterwards.
+     */
+    SettingsOverlay(Map<String, String> base) {
+        this(base, new HashMap<>());
+    }
+    
+    /**
+     * Creates an empty overlay.
+     */
+    SettingsOverlay() {
+        this(Collections.emptyMap());
+    }
+    
+    private SettingsOverlay(Map<String, String> base, Map<String, String> overrides) {
+        this.base = base;
+        this.overrides = overrides;
+    }
+    
+    /**
+     * Creates a copy of this overlay which can be modified independently.
+     * Only the overrides are copied, the base is shared. If the overlay mostly
+     * consists of its own overrides, e.g. right after settings were loaded,
+     * these will be merged into a new shared base first, so this and all
+     * following copies share it instead of copying it. Readers of this overlay
+     * see the same settings before and after the merge.
+     *
+     * @return an independent copy of the settings
+     */
+    synchronized SettingsOverlay share() {
+        if (overrides.size() > base.size()) rebase();
+        return new SettingsOverlay(base, new HashMap<>(overrides));
+    }
+    
+    /**
+     * @return the shared settings if this overlay has no own overrides,
+     * {@code null} otherwise
+     */
+    Map<String, String> unchangedBase() {
+        Map<String, String> ownSettings = overrides;
+        return ownSettings.isEmpty() ? base : null;
+    }
+    
+    /**
+     * Merges the overrides into a new base, which will be shared by all
+     * following copies. The base is published before the overrides are
+     * dropped, so readers which already saw the new overrides will also see
+     * the new base.
+     */
+    private void rebase() {
+        base = Collections.unmodifiableMap(new HashMap<>(this));
+        overrides = new HashMap<>();
+    }
+    
+    @Override
+    public String get(Object key) {
+        Map<String, String> ownSettings = overrides;
+        String value = ownSettings.get(key);
+        if (value == REMOVED) return null;
+        if (value != null || ownSettings.containsKey(key)) return value;
+        return base.get(key);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        Map<String, String> ownSettings = overrides;
+        String value = ownSettings.get(key);
+        if (value == REMOVED) return false;
+        return value != null || ownSettings.containsKey(key) || base.containsKey(key);
+    }
+    
+    @Override
+    public synchronized String put(String key, String value) {
+        String previous = get(key);
+        overrides.put(key, value);
+        return previous;
+    }
+    
+    @Override
+    public synchronized String remove(Object key) {
+        String previous = get(key);
+        if (base.containsKey(key)) overrides.put((String) key, REMOVED);
+        else overrides.remove(key);
+        return previous;
+    }
+    
+    @Override
+    public synchronized void clear() {
+        base = Collections.emptyMap();
+        overrides = new HashMap<>();
+    }
+    
+    @Override
+    public int size() {
+        Map<String, String> ownSettings = overrides;
+        Map<String, String> sharedSettings = base;
+        int size = sharedSettings.size();
+        for (Map.Entry<String, String> override : ownSettings.entrySet()) {
+            boolean inBase = sharedSettings.containsKey(override.getKey());
+            if (override.getValue() == REMOVED) {
+                if (inBase) size--;
+            } else if (!inBase) size++;
+        }
+        return size;
+    }
+    
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private final Map<String, String> ownSettings = overrides;
+                    private final Iterator<Entry<String, String>> ownEntries = ownSettings.entrySet().iterator();
+                    private final Iterator<Entry<String, String>> sharedEntries = base.entrySet().iterator();
+                    private Entry<String, String> next = advance();
+                    
+                    private Entry<String, String> advance() {
+                        while (ownEntries.hasNext()) {
+                            Entry<String, String> entry = ownEntries.next();
+                            if (entry.getValue() != REMOVED) return new SimpleImmutableEntry<>(entry);
+                        }
+                        while (sharedEntries.hasNext()) {
+                            Entry<String, String> entry = sharedEntries.next();
+                            if (!ownSettings.containsKey(entry.getKey())) return new SimpleImmutableEntry<>(entry);
+                        }
+                        return null;
+                    }
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+                    
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next == null) throw new NoSuchElementException();
+                        Entry<String, String> current = next;
+                        next = advance();
+                        return current;
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return SettingsOverlay.this.size();
+            }
+        };
+    }
+}
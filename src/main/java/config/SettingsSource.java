@@ -0,0 +1,58 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * A source of settings which may change over time, e.g. a remote config
+ * service, see {@link HttpSettingsSource}. It gets read via
+ * {@link ConfigPreparer#addSettingsSource(SettingsSource)} and can be polled
+ * via
+ * {@link ConfigPreparer#pollSettingsSource(SettingsSource, java.util.concurrent.ScheduledExecutorService, java.time.Duration, java.time.Duration, Config...)}.
+ * Implementations remember what they have read last, so unchanged content is
+ * neither transferred nor parsed again.
+ *
+ * @author JonasDoe
+ */
+public interface SettingsSource {
+    
+    /**
+     * @return a description of the source, e.g. its {@code URI}, used as
+     * source of the {@link SettingChange}s
+     */
+    String name();
+    
+    /**
+     * Passes the content of the source to the specified parser, unless it did
+     * not change since the last successful read. A read is only successful if
+     * the parser returns normally, so content which could not be parsed will
+     * be passed again next time.
+     *
+     * @param parser
+     *         of the content
+     * @return {@code true} if the content was parsed, {@code false} if it did
+     * not change
+     * @throws IOException
+     *         if the source cannot be read or the parser fails
+     */
+    boolean readIfChanged(ContentParser parser) throws IOException;
+    
+    /**
+     * Parses the content of a {@link SettingsSource}.
+     */
+    interface ContentParser {
+        
+        /**
+         * @param content
+         *         of the source in the form of {@code ("name=value")} lines,
+         *         will be closed by the {@code SettingsSource}
+         * @param encoding
+         *         of the content, or {@code null} if the source does not
+         *         know it, so it will be determined like for files
+         * @throws IOException
+         *         if reading the content fails
+         */
+        void parse(InputStream content, Charset encoding) throws IOException;
+    }
+}
@@ -0,0 +1,47 @@
+package config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects the changes of a batch update, see
+ * {@link Config#update(java.util.function.Consumer)}. Nothing is applied until
+ * the whole batch has been converted successfully.
+ *
+ * @author JonasDoe
+ */
+public final class SettingsUpdate {
+    /** The new values by the names of their settings, in the order they were set */
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    
+    /**
+     * Only {@link Config} creates updates.
+     */
+    SettingsUpdate() {
+    }
+    
+    /**
+     * Sets a setting, overriding a value set before in the same batch.
+     *
+     * @param settingName
+     *         the name of the setting. If it does not exist, it will be
+     *         created.
+     * @param value
+     *         the new value, converted by the registered
+     *         {@link SettingConverter}s. {@code null} clears the setting.
+     * @return the {@code SettingsUpdate} itself.
+     */
+    public SettingsUpdate set(String settingName, Object value) {
+        values.put(Objects.requireNonNull(settingName), value);
+        return this;
+    }
+    
+    /**
+     * @return the new values by the names of their settings
+     */
+    Map<String, Object> values() {
+        return Collections.unmodifiableMap(values);
+    }
+}
@@ -0,0 +1,189 @@
+package config;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Shares settings between processes via a memory-mapped file. A publishing
+ * process writes its settings as an encoded {@link FrozenSettings} block,
+ * other processes map the file and read the settings directly from it,
+ * without parsing or copying them.<br>
+ * The file starts with a header of {@value #HEADER_SIZE} bytes:
+ * <ul>
+ * <li>{@code int} {@value #MAGIC}, identifying the file</li>
+ * <li>{@code int} layout version {@value #LAYOUT_VERSION}</li>
+ * <li>{@code long} sequence, odd while the header is being updated</li>
+ * <li>{@code long} version of the settings, increased by each publication</li>
+ * <li>{@code long} position and {@code long} length of the current block</li>
+ * <li>{@code int} {@code 1} if the file was replaced by a compacted one</li>
+ * </ul>
+ * Blocks are only appended and never changed, so a reader which found a
+ * block via a consistent header (checked via the sequence, like a seqlock)
+ * reads a consistent snapshot for as long as it likes. Once the file holds
+ * much more outdated than current data, the publisher replaces it by a
+ * compacted copy. Existing mappings of the replaced file stay valid.
+ *
+ * @author JonasDoe
+ */
+final class SharedSettingsSegment {
+    /** Identifies a segment file, "CFGS" */
+    static final int MAGIC = 0x43464753;
+    /** Version of the binary layout */
+    static final int LAYOUT_VERSION = 1;
+    /** Size of the header, blocks are appended after it */
+    static final int HEADER_SIZE = 64;
+    private static final int LAYOUT_VERSION_POSITION = 4;
+    private static final int SEQUENCE_POSITION = 8;
+    private static final int VERSION_POSITION = 16;
+    private static final int BLOCK_POSITION_POSITION = 24;
+    private static final int BLOCK_LENGTH_POSITION = 32;
+    private static final int REPLACED_POSITION = 40;
+    /** The file gets compacted once it holds this many times the size of the current block */
+    private static final int COMPACTION_FACTOR = 4;
+    /** How often a reader or publisher retries to open a replaced file */
+    private static final int MAX_OPEN_ATTEMPTS = 16;
+    /** Accesses the {@code long}s of the header atomically */
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private SharedSettingsSegment() {
+    }
+    
+    /**
+     * Publishes the settings into the segment file, which will be created if
+     * it does not exist yet. Readers which are already attached keep their
+     * snapshot until they attach again.
+     *
+     * @param segment
+     *         the segment file
+     * @param settings
+     *         to be published
+     * @return the version of the published settings
+     * @throws IOException
+     *         if writing the file fails, or it is no segment file
+     */
+    static long publish(Path segment, Map<String, String> settings) throws IOException {
+        ByteBuffer block = FrozenSettings.of(settings).encode();
+        for (int attempt = 0; attempt < MAX_OPEN_ATTEMPTS; attempt++) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // released by closing the channel
+                channel.lock();
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                if (header.getInt(0) == 0) {
+                    header.putInt(LAYOUT_VERSION_POSITION, LAYOUT_VERSION);
+                    header.putInt(0, MAGIC);
+                } else checkHeader(header, segment);
+                // another publisher compacted the file while this one waited for the lock
+                if (header.getInt(REPLACED_POSITION) != 0) continue;
+                long version = (long) LONGS.getVolatile(header, VERSION_POSITION) + 1;
+                // blocks are 8 byte aligned
+                long position = Math.max(HEADER_SIZE, (channel.size() + 7) & ~7L);
+                if (position - HEADER_SIZE >= (long) COMPACTION_FACTOR * block.remaining()) {
+                    compact(segment, header, block, version);
+                    return version;
+                }
+                write(channel, block, position);
+                long sequence = (long) LONGS.getVolatile(header, SEQUENCE_POSITION);
+                LONGS.setVolatile(header, SEQUENCE_POSITION, sequence + 1);
+                header.putLong(VERSION_POSITION, version);
+                header.putLong(BLOCK_POSITION_POSITION, position);
+                header.putLong(BLOCK_LENGTH_POSITION, block.limit());
+                LONGS.setRelease(header, SEQUENCE_POSITION, sequence + 2);
+                return version;
+            }
+        }
+        throw new IOException("Could not publish to " + segment + ", it is replaced too often");
+    }
+    
+    /**
+     * Reads the current settings of the segment file. The settings are read
+     * directly from the mapped file and are not copied.
+     *
+     * @param segment
+     *         the segment file
+     * @return the current settings
+     * @throws IOException
+     *         if reading the file fails, or it is no segment file
+     */
+    static FrozenSettings attach(Path segment) throws IOException {
+        for (int attempt = 0; attempt < MAX_OPEN_ATTEMPTS; attempt++) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                if (channel.size() < HEADER_SIZE) throw new IOException("No settings published in " + segment);
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                checkHeader(header, segment);
+                long position;
+                long length;
+                boolean replaced;
+                long sequence;
+                do {
+                    while (((sequence = (long) LONGS.getAcquire(header, SEQUENCE_POSITION)) & 1) != 0) {
+                        Thread.onSpinWait();
+                    }
+                    position = header.getLong(BLOCK_POSITION_POSITION);
+                    length = header.getLong(BLOCK_LENGTH_POSITION);
+                    replaced = header.getInt(REPLACED_POSITION) != 0;
+                    VarHandle.acquireFence();
+                } while (sequence != (long) LONGS.getVolatile(header, SEQUENCE_POSITION));
+                // a replaced file was renamed, so the path leads to the compacted one by now
+                if (replaced) continue;
+                if (position == 0) throw new IOException("No settings published in " + segment);
+                return FrozenSettings.decode(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        throw new IOException("Could not attach to " + segment + ", it is replaced too often");
+    }
+    
+    /**
+     * Writes a new segment file holding just the specified block and replaces
+     * the old one by it. The old file gets marked as replaced afterwards, so
+     * its readers will switch to the new one.
+     */
+    private static void compact(Path segment, MappedByteBuffer oldHeader, ByteBuffer block, long version)
+            throws IOException {
+        Path compacted = Files.createTempFile(segment.toAbsolutePath().getParent(), segment.getFileName().toString(),
+                ".compacting");
+        try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, MAGIC);
+            header.putInt(LAYOUT_VERSION_POSITION, LAYOUT_VERSION);
+            header.putLong(VERSION_POSITION, version);
+            header.putLong(BLOCK_POSITION_POSITION, HEADER_SIZE);
+            header.putLong(BLOCK_LENGTH_POSITION, block.limit());
+            write(channel, header, 0);
+            write(channel, block, HEADER_SIZE);
+        }
+        Files.move(compacted, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long sequence = (long) LONGS.getVolatile(oldHeader, SEQUENCE_POSITION);
+        LONGS.setVolatile(oldHeader, SEQUENCE_POSITION, sequence + 1);
+        oldHeader.putInt(REPLACED_POSITION, 1);
+        LONGS.setRelease(oldHeader, SEQUENCE_POSITION, sequence + 2);
+    }
+    
+    private static void checkHeader(ByteBuffer header, Path segment) throws IOException {
+        if (header.getInt(0) != MAGIC) throw new IOException(segment + " is no settings segment");
+        int layoutVersion = header.getInt(LAYOUT_VERSION_POSITION);
+        if (layoutVersion != LAYOUT_VERSION) throw new IOException(
+                segment + " has the unsupported layout version " + layoutVersion);
+    }
+    
+    private static void write(FileChannel channel, ByteBuffer content, long position) throws IOException {
+        ByteBuffer toWrite = content.duplicate();
+        while (toWrite.hasRemaining()) {
+            position += channel.write(toWrite, position);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package config;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JVM-wide pool of setting names and values. If enabled via
+ * {@link ConfigPreparer#withStringPooling(boolean)}, equal {@code String}s
+ * read by any {@link ConfigPreparer} will be replaced by one shared instance,
+ * so repetitive keys and values (like {@code true}, host names or paths) are
+ * held only once on the heap. The pool only references its {@code String}s
+ * weakly, so they are dropped as soon as no settings use them anymore. It is
+ * backed by a {@link ConcurrentHashMap}, so parallel loads don't wait for each
+ * other.
+ *
+ * @author JonasDoe
+ */
+public final class StringPool {
+    /** Maps each pooled {@code String}, wrapped by a {@link Pooled} reference, to that reference */
+    private static final ConcurrentHashMap<Object, Pooled> POOL = new ConcurrentHashMap<>();
+    /** Receives the references of collected {@code String}s, so they can be removed from the {@link #POOL} */
+    private static final ReferenceQueue<String> COLLECTED = new ReferenceQueue<>();
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private StringPool() {
+    }
+    
+    /**
+     * Returns the pooled instance equal to the given {@code String}. If there is
+     * none yet, the given one will be pooled.
+     *
+     * @param string
+     *         to be canonicalized, might be {@code null}
+     * @return the pooled instance, or {@code string} itself if there was none
+     */
+    public static String canonicalize(String string) {
+        if (string == null) return null;
+        for (Reference<? extends String> collected; (collected = COLLECTED.poll()) != null; ) {
+            POOL.remove(collected, collected);
+        }
+        Pooled reference = POOL.get(new Lookup(string));
+        String pooled = reference == null ? null : reference.get();
+        if (pooled != null) return pooled;
+        Pooled added = new Pooled(string);
+        while (true) {
+            reference = POOL.putIfAbsent(added, added);
+            pooled = reference == null ? string : reference.get();
+            if (pooled != null) return pooled;
+            // collected meanwhile, but not removed yet
+            POOL.remove(reference, reference);
+        }
+    }
+    
+    /**
+     * Weak reference to a pooled {@code String}, equal to the references and
+     * {@link Lookup}s of equal {@code String}s as long as it isn't collected.
+     */
+    private static final class Pooled extends WeakReference<String> {
+        private final int hash;
+        
+        private Pooled(String string) {
+            super(string, COLLECTED);
+            hash = string.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            String string = get();
+            if (string == null) return false;
+            if (o instanceof Pooled) return string.equals(((Pooled) o).get());
+            return o instanceof Lookup && string.equals(((Lookup) o).string);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    /**
+     * Key to look up the {@link Pooled} reference of a {@code String} without
+     * creating a reference.
+     */
+    private static final class Lookup {
+        private final String string;
+        
+        private Lookup(String string) {
+            this.string = string;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Pooled && string.equals(((Pooled) o).get());
+        }
+        
+        @Override
+        public int hashCode() {
+            return string.hashCode();
+        }
+    }
+}
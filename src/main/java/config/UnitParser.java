@@ -0,0 +1,261 @@
+package config;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.function.Function;
+
+/**
+ * Parses amounts with units, i.e. durations like {@code 250ms} or
+ * {@code 1h30m} and data sizes like {@code 64KB} or {@code 512MiB}. The
+ * parsing scans the chars directly, so besides the result nothing gets
+ * allocated. Amounts are integers; durations may consist of several amounts,
+ * e.g. {@code 1m30s}, and may be given in ISO-8601 format as well, e.g.
+ * {@code PT30S}.<br>
+ * Duration units are {@code ns}, {@code us} (or {@code µs}), {@code ms},
+ * {@code s}, {@code m} (or {@code min}), {@code h} and {@code d}. Data size
+ * units are {@code B}, the decimal {@code KB}, {@code MB}, {@code GB} and
+ * {@code TB} (powers of 1000) and the binary {@code KiB}, {@code MiB},
+ * {@code GiB} and {@code TiB} (powers of 1024). Units are case-insensitive.
+ *
+ * @author JonasDoe
+ */
+final class UnitParser {
+    /** Names of the duration units */
+    private static final String[] DURATION_UNITS = {"ns", "us", "µs", "ms", "min", "s", "m", "h", "d"};
+    /** Nanoseconds per {@link #DURATION_UNITS} */
+    private static final long[] NANOS = {1, 1_000, 1_000, 1_000_000, 60_000_000_000L, 1_000_000_000, 60_000_000_000L,
+            3_600_000_000_000L, 86_400_000_000_000L};
+    /** Names of the data size units */
+    private static final String[] DATA_UNITS = {"KiB", "MiB", "GiB", "TiB", "KB", "MB", "GB", "TB", "B"};
+    /** Bytes per {@link #DATA_UNITS} */
+    private static final long[] BYTES = {1L << 10, 1L << 20, 1L << 30, 1L << 40, 1_000, 1_000_000, 1_000_000_000,
+            1_000_000_000_000L, 1};
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private UnitParser() {
+    }
+    
+    /**
+     * Parses a duration, e.g. {@code 250ms}, {@code 1h30m} or {@code PT30S}.
+     *
+     * @param value
+     *         to be parsed
+     * @return the parsed duration
+     * @throws IllegalArgumentException
+     *         if the value is no valid duration, e.g. a number without unit
+     */
+    static Duration parseDuration(String value) {
+        int start = skipSpacings(value, 0);
+        int isoStart = start < value.length() && (value.charAt(start) == '-' || value.charAt(start) == '+') ?
+                       start + 1 : start;
+        if (isoStart < value.length() && (value.charAt(isoStart) == 'P' || value.charAt(isoStart) == 'p')) {
+            try {
+                return Duration.parse(value.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(value + " is no valid duration", e);
+            }
+        }
+        return Duration.ofNanos(scan(value, DURATION_UNITS, NANOS, 0));
+    }
+    
+    /**
+     * Parses a data size, e.g. {@code 64KB} or {@code 512MiB}. Numbers without
+     * unit are bytes.
+     *
+     * @param value
+     *         to be parsed
+     * @return the number of bytes
+     * @throws IllegalArgumentException
+     *         if the value is no valid data size
+     */
+    static long parseBytes(String value) {
+        return scan(value, DATA_UNITS, BYTES, 1);
+    }
+    
+    /**
+     * Creates a {@code Function} which parses durations or data sizes and
+     * converts them into a fixed unit, e.g. {@code 30s} into {@code 30000}
+     * for the unit {@code ms}. Numbers without unit are taken as they are,
+     * without being converted back and forth. Results are truncated towards
+     * zero, like {@code TimeUnit}s do.
+     *
+     * @param unit
+     *         the result is expressed in, e.g. {@code ms} or {@code MiB}
+     * @param type
+     *         of the result, either {@code long} or {@code int}, boxed or not
+     * @return the converting {@code Function}
+     * @throws IllegalArgumentException
+     *         if the unit or type is not supported
+     */
+    static Function<String, Object> toUnitFunction(String unit, Class<?> type) {
+        boolean isLong = type == long.class || type == Long.class;
+        if (!isLong && type != int.class && type != Integer.class) throw new IllegalArgumentException(
+                "Units are not supported for " + type.getName());
+        String[] units = DURATION_UNITS;
+        long[] factors = NANOS;
+        int index = indexOf(unit, 0, unit.length(), units);
+        if (index < 0) {
+            units = DATA_UNITS;
+            factors = BYTES;
+            index = indexOf(unit, 0, unit.length(), units);
+        }
+        if (index < 0) throw new IllegalArgumentException("Unknown unit " + unit);
+        String[] knownUnits = units;
+        long[] knownFactors = factors;
+        long factor = factors[index];
+        return value -> {
+            long total = scan(value, knownUnits, knownFactors, 1);
+            long amount = isBare(value) ? total : total / factor;
+            if (isLong) return amount;
+            try {
+                return Math.toIntExact(amount);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(value + " is out of range", e);
+            }
+        };
+    }
+    
+    /**
+     * Formats a duration compactly, e.g. {@code 1h30m} or {@code 250ms}, so it
+     * can be parsed by {@link #parseDuration(String)} again.
+     *
+     * @param duration
+     *         to be formatted
+     * @return the formatted duration
+     */
+    static String formatDuration(Duration duration) {
+        if (duration.isZero()) return "0s";
+        StringBuilder formatted = new StringBuilder();
+        if (duration.isNegative()) {
+            formatted.append('-');
+            duration = duration.negated();
+        }
+        long seconds = duration.getSeconds();
+        appendAmount(formatted, seconds / 86_400, "d");
+        appendAmount(formatted, seconds % 86_400 / 3_600, "h");
+        appendAmount(formatted, seconds % 3_600 / 60, "m");
+        appendAmount(formatted, seconds % 60, "s");
+        int nanos = duration.getNano();
+        appendAmount(formatted, nanos / 1_000_000, "ms");
+        appendAmount(formatted, nanos % 1_000_000 / 1_000, "us");
+        appendAmount(formatted, nanos % 1_000, "ns");
+        return formatted.toString();
+    }
+    
+    /**
+     * Formats a data size with the largest unit the size is a multiple of, so
+     * it can be parsed by {@link #parseBytes(String)} again.
+     *
+     * @param bytes
+     *         the size to be formatted
+     * @return the formatted size, e.g. {@code 512MiB}
+     */
+    static String formatBytes(long bytes) {
+        String bestUnit = "B";
+        long bestFactor = 1;
+        for (int i = 0; i < DATA_UNITS.length; i++) {
+            if (BYTES[i] > bestFactor && bytes % BYTES[i] == 0) {
+                bestUnit = DATA_UNITS[i];
+                bestFactor = BYTES[i];
+            }
+        }
+        return bytes / bestFactor + bestUnit;
+    }
+    
+    /**
+     * Scans amounts with units and sums them up in the base unit.
+     *
+     * @param value
+     *         to be scanned
+     * @param units
+     *         names of the valid units
+     * @param factors
+     *         converting the units into the base unit
+     * @param bareFactor
+     *         applied to a single amount without unit, or {@code 0} if only
+     *         {@code 0} may be given without unit
+     * @return the sum in the base unit
+     * @throws IllegalArgumentException
+     *         if the value is invalid or too large
+     */
+    private static long scan(String value, String[] units, long[] factors, long bareFactor) {
+        int position = skipSpacings(value, 0);
+        boolean negative = position < value.length() && value.charAt(position) == '-';
+        if (negative || position < value.length() && value.charAt(position) == '+') position++;
+        long total = 0;
+        boolean first = true;
+        try {
+            do {
+                position = skipSpacings(value, position);
+                int numberStart = position;
+                long amount = 0;
+                while (position < value.length() && value.charAt(position) >= '0' && value.charAt(position) <= '9') {
+                    amount = Math.addExact(Math.multiplyExact(amount, 10), value.charAt(position++) - '0');
+                }
+                if (position == numberStart) throw new IllegalArgumentException("Missing amount in " + value);
+                position = skipSpacings(value, position);
+                int unitStart = position;
+                while (position < value.length() && isUnitChar(value.charAt(position))) position++;
+                if (unitStart == position) {
+                    // a single number without any unit
+                    if (!first || skipSpacings(value, position) < value.length()) throw new IllegalArgumentException(
+                            "Missing unit in " + value);
+                    if (bareFactor == 0 && amount != 0) throw new IllegalArgumentException(
+                            "Missing unit in " + value);
+                    total = Math.multiplyExact(amount, Math.max(bareFactor, 1));
+                    break;
+                }
+                int unit = indexOf(value, unitStart, position, units);
+                if (unit < 0) throw new IllegalArgumentException(
+                        "Unknown unit " + value.substring(unitStart, position) + " in " + value);
+                total = Math.addExact(total, Math.multiplyExact(amount, factors[unit]));
+                first = false;
+                position = skipSpacings(value, position);
+            } while (position < value.length());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(value + " is out of range", e);
+        }
+        return negative ? -total : total;
+    }
+    
+    /**
+     * @return the index of the unit spanning from {@code start} to {@code end}
+     * in the value, or {@code -1} if it is unknown
+     */
+    private static int indexOf(String value, int start, int end, String[] units) {
+        for (int i = 0; i < units.length; i++) {
+            if (units[i].length() == end - start && value.regionMatches(true, start, units[i], 0, end - start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @return {@code true} if the value is a single amount without unit, e.g.
+     * {@code 1500}
+     */
+    private static boolean isBare(String value) {
+        int position = skipSpacings(value, 0);
+        if (position < value.length() && (value.charAt(position) == '-' || value.charAt(position) == '+')) position++;
+        position = skipSpacings(value, position);
+        int numberStart = position;
+        while (position < value.length() && value.charAt(position) >= '0' && value.charAt(position) <= '9') position++;
+        return position > numberStart && skipSpacings(value, position) == value.length();
+    }
+    
+    private static boolean isUnitChar(char character) {
+        return character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z' || character == 'µ';
+    }
+    
+    private static int skipSpacings(String value, int position) {
+        while (position < value.length() && Character.isWhitespace(value.charAt(position))) position++;
+        return position;
+    }
+    
+    private static void appendAmount(StringBuilder formatted, long amount, String unit) {
+        if (amount != 0) formatted.append(amount).append(unit);
+    }
+}
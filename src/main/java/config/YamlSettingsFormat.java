@@ -0,0 +1,230 @@
+package config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BiConsumer;
+
+/**
+ * Line based parser of the YAML subset of {@link SettingsFormat#YAML}. It only
+ * holds the keys of the mappings enclosing the current line, so its memory
+ * does not depend on the size of the source.
+ *
+ * @author JonasDoe
+ */
+final class YamlSettingsFormat implements SettingsFormat {
+    
+    @Override
+    public void parse(Reader source, BiConsumer<String, String> settings) throws IOException {
+        Parser parser = new Parser(settings);
+        PooledLineReader.readLines(source, parser::parseLine);
+        parser.finish();
+    }
+    
+    /**
+     * Parses a single source.
+     */
+    private static final class Parser {
+        private final BiConsumer<String, String> settings;
+        /** The keys without value on the same line, which enclose the current line */
+        private final Deque<Block> blocks = new ArrayDeque<>();
+        private int lineNumber;
+        
+        private Parser(BiConsumer<String, String> settings) {
+            this.settings = settings;
+        }
+        
+        private void parseLine(String line) throws IOException {
+            lineNumber++;
+            String content = stripComment(line);
+            int indent = 0;
+            while (indent < content.length() && content.charAt(indent) == ' ') indent++;
+            boolean tabIndented = indent < content.length() && content.charAt(indent) == '\t';
+            content = content.trim();
+            if (content.isEmpty() || content.equals("---") || content.equals("...")) return;
+            if (tabIndented) throw malformed("tabs are not allowed for indentation");
+            if (content.equals("-") || content.startsWith("- ")) {
+                // items may be indented like their key
+                while (!blocks.isEmpty() && indent < blocks.peek().indent) close(blocks.pop());
+                Block block = blocks.peek();
+                if (block == null || block.hasChildren) throw malformed("list item without key");
+                String item = content.substring(1).trim();
+                if (keyDelimiter(item) >= 0) throw malformed("lists of mappings are not supported");
+                block.addItem(toValue(item));
+                return;
+            }
+            while (!blocks.isEmpty() && indent <= blocks.peek().indent) close(blocks.pop());
+            int colon = keyDelimiter(content);
+            if (colon < 0) throw malformed("expected 'key: value'");
+            Block parent = blocks.peek();
+            if (parent != null) {
+                if (parent.items != null) throw malformed("mixed list items and keys");
+                parent.hasChildren = true;
+            }
+            String key = unquote(content.substring(0, colon).trim());
+            String name = parent == null ? key : parent.name + "." + key;
+            String value = content.substring(colon + 1).trim();
+            if (value.isEmpty()) blocks.push(new Block(indent, name));
+            else settings.accept(name, toValue(value));
+        }
+        
+        private void finish() {
+            while (!blocks.isEmpty()) close(blocks.pop());
+        }
+        
+        /**
+         * Emits a key without value on its line: the joined list items, or an
+         * empty setting if it has neither items nor nested keys.
+         */
+        private void close(Block block) {
+            if (block.items != null) settings.accept(block.name, block.items.toString());
+            else if (!block.hasChildren) settings.accept(block.name, "");
+        }
+        
+        /**
+         * Converts a plain, quoted or flow sequence value.
+         */
+        private String toValue(String value) throws IOException {
+            if (value.startsWith("[") && value.endsWith("]")) {
+                StringBuilder items = new StringBuilder();
+                String inner = value.substring(1, value.length() - 1).trim();
+                if (inner.isEmpty()) return "";
+                int start = 0;
+                while (start <= inner.length()) {
+                    int end = itemDelimiter(inner, start);
+                    String item = inner.substring(start, end).trim();
+                    // a trailing comma doesn't start another item
+                    if (item.isEmpty() && end == inner.length() && start > 0) break;
+                    if (items.length() > 0) items.append(CollectionConverter.ELEMENT_DELIMITER);
+                    items.append(ConfigUtils.escape(toValue(item), CollectionConverter.ELEMENT_DELIMITER));
+                    start = end + 1;
+                }
+                return items.toString();
+            }
+            if (value.startsWith("{") || value.startsWith("|") || value.startsWith(">") || value.startsWith("&") ||
+                value.startsWith("*")) throw malformed("unsupported value '" + value + "'");
+            if (value.equals("~") || value.equals("null")) return "";
+            return unquote(value);
+        }
+        
+        private String unquote(String value) {
+            if (value.length() >= 2) {
+                char quote = value.charAt(0);
+                if (quote == '\'' && value.endsWith("'")) return value.substring(1, value.length() - 1)
+                                                                   .replace("''", "'");
+                if (quote == '"' && value.endsWith("\"")) return unescape(value.substring(1, value.length() - 1));
+            }
+            return value;
+        }
+        
+        /**
+         * Resolves the escape sequences of a double-quoted value in a single
+         * pass. Unknown sequences are kept as they are.
+         */
+        private static String unescape(String value) {
+            StringBuilder unescaped = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != '\\' || i + 1 == value.length()) {
+                    unescaped.append(c);
+                    continue;
+                }
+                char escaped = value.charAt(++i);
+                switch (escaped) {
+                    case 'n':
+                        unescaped.append('\n');
+                        break;
+                    case 't':
+                        unescaped.append('\t');
+                        break;
+                    case '"':
+                    case '\\':
+                        unescaped.append(escaped);
+                        break;
+                    default:
+                        unescaped.append('\\').append(escaped);
+                }
+            }
+            return unescaped.toString();
+        }
+        
+        /**
+         * @return the index of the colon separating key and value, or
+         * {@code -1} if there is none
+         */
+        private static int keyDelimiter(String content) {
+            char quote = 0;
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) quote = 0;
+                } else if (c == '"' || c == '\'') quote = c;
+                else if (c == ':' && (i + 1 == content.length() || content.charAt(i + 1) == ' ')) return i;
+            }
+            return -1;
+        }
+        
+        /**
+         * @return the index of the comma ending the flow sequence item which
+         * starts at the specified index, or the length of the content if it's
+         * the last item
+         */
+        private static int itemDelimiter(String content, int start) {
+            char quote = 0;
+            for (int i = start; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (quote != 0) {
+                    if (c == '\\' && quote == '"') i++;
+                    else if (c == quote) quote = 0;
+                } else if (c == '"' || c == '\'') quote = c;
+                else if (c == ',') return i;
+            }
+            return content.length();
+        }
+        
+        /**
+         * Removes a comment, i.e. a {@code '#'} at the beginning or after a
+         * whitespace, outside of quotes.
+         */
+        private static String stripComment(String line) {
+            char quote = 0;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) quote = 0;
+                } else if (c == '"' || c == '\'') quote = c;
+                else if (c == '#' && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) return line.substring(0, i);
+            }
+            return line;
+        }
+        
+        private IOException malformed(String problem) {
+            return new IOException("Malformed YAML in line " + lineNumber + ": " + problem);
+        }
+    }
+    
+    /**
+     * A key without value on its line, whose value follows in more indented
+     * lines.
+     */
+    private static final class Block {
+        private final int indent;
+        private final String name;
+        /** Whether nested keys follow */
+        private boolean hasChildren;
+        /** The joined list items, {@code null} if there are none */
+        private StringBuilder items;
+        
+        private Block(int indent, String name) {
+            this.indent = indent;
+            this.name = name;
+        }
+        
+        private void addItem(String item) {
+            if (items == null) items = new StringBuilder();
+            else items.append(CollectionConverter.ELEMENT_DELIMITER);
+            items.append(ConfigUtils.escape(item, CollectionConverter.ELEMENT_DELIMITER));
+        }
+    }
+}
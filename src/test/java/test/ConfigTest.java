@@ -1,19 +1,62 @@
 package test;
 
+import config.ConfigFactory;
 import config.ConfigPreparer;
+import config.ConfigUtils;
+import config.HttpSettingsSource;
+import config.DataSize;
+import config.FeatureFlags;
+import config.Secret;
+import config.SettingsFormat;
+import config.SettingChange;
 import config.SettingConverter;
+import config.StringPool;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,4 +145,1007 @@ class ConfigTest {
         assertEquals("default", incomplete.existingDefault);
         assertNull(incomplete.optionalValue);
     }
+    
+    @Test
+    void test_derived() throws IOException, URISyntaxException, ReflectiveOperationException {
+        // Check that derived preparers only see their own overrides
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ConfigPreparer basePreparer = new ConfigPreparer(fileToLoad);
+        ConfigPreparer tenantPreparer = basePreparer.derive().addSettingsSource("withSpacing", "tenant");
+        ExampleChildConfig tenantConfig = tenantPreparer.fillConfig(new ExampleChildConfig());
+        ExampleChildConfig baseConfig = basePreparer.fillConfig(new ExampleChildConfig());
+        checkContent(baseConfig);
+        assertEquals("tenant", tenantConfig.withSpacing);
+        assertEquals("testSuperAttribute", tenantConfig.superValue);
+        assertEquals(Integer.valueOf(12345), tenantConfig.testNestedConfig.nestedConfigAttribute);
+    
+        // Check that changes of the base won't leak into derived preparers
+        basePreparer.addSettingsSource("umlaut", "changed");
+        assertEquals("asdfäöü", tenantPreparer.fillConfig(new ExampleChildConfig()).testSettingNotDefault);
+        assertEquals("changed", basePreparer.fillConfig(new ExampleChildConfig()).testSettingNotDefault);
+        
+        // Check that derived preparers share the loaded settings instead of copying them
+        Map<String, String> manySettings = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) manySettings.put("key" + i, "value" + i);
+        ConfigPreparer loadedPreparer = new ConfigPreparer(manySettings);
+        ConfigPreparer firstDerived = loadedPreparer.derive().addSettingsSource("key0", "first");
+        ConfigPreparer secondDerived = loadedPreparer.derive();
+        Object sharedBase = sharedSettingsOf(loadedPreparer);
+        assertEquals(20_000, ((Map<?, ?>) sharedBase).size());
+        assertSame(sharedBase, sharedSettingsOf(firstDerived));
+        assertSame(sharedBase, sharedSettingsOf(secondDerived));
+        assertEquals("value0", ((Map<?, ?>) sharedBase).get("key0"));
+    }
+    
+    private static Object sharedSettingsOf(ConfigPreparer configPreparer) throws ReflectiveOperationException {
+        Field settingsField = ConfigPreparer.class.getDeclaredField("settings");
+        settingsField.setAccessible(true);
+        Object settings = settingsField.get(configPreparer);
+        Field baseField = settings.getClass().getDeclaredField("base");
+        baseField.setAccessible(true);
+        return baseField.get(settings);
+    }
+    
+    @Test
+    void test_stringPooling() throws IOException, URISyntaxException {
+        // Check that equal settings read by different preparers share one instance
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ExampleChildConfig first = new ConfigPreparer(fileToLoad).withStringPooling(true)
+                                                                 .addSettingsSource(fileToLoad)
+                                                                 .fillConfig(new ExampleChildConfig());
+        ExampleChildConfig second = new ConfigPreparer().withStringPooling(true)
+                                                        .addSettingsSource(fileToLoad)
+                                                        .fillConfig(new ExampleChildConfig());
+        checkContent(second);
+        assertSame(first.withSpacing, second.withSpacing);
+        assertSame(first.superValue, second.superValue);
+        assertSame(StringPool.canonicalize(new String("has space")), second.withSpacing);
+        
+        // Check that threads pooling equal strings at the same time get one instance
+        List<CompletableFuture<List<String>>> pooledByThreads = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            pooledByThreads.add(CompletableFuture.supplyAsync(() -> {
+                List<String> pooled = new ArrayList<>();
+                for (int i = 0; i < 10_000; i++) pooled.add(StringPool.canonicalize(new String("pooled." + i)));
+                return pooled;
+            }));
+        }
+        List<String> pooled = pooledByThreads.get(0).join();
+        for (CompletableFuture<List<String>> other : pooledByThreads) {
+            List<String> otherPooled = other.join();
+            for (int i = 0; i < pooled.size(); i++) assertSame(pooled.get(i), otherPooled.get(i));
+        }
+    }
+    
+    @Test
+    void test_async() throws URISyntaxException {
+        // Check that files are read and configs are filled on the executor
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        File incompleteToLoad = Paths.get(CONFIG_INCOMPLETE_LOAD_FILE.toURI()).toFile();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ExampleChildConfig childConfig = ConfigPreparer.loadAsync(executor, incompleteToLoad, fileToLoad)
+                                                           .thenCompose(preparer -> preparer.fillConfigAsync(
+                                                                   new ExampleChildConfig(), executor))
+                                                           .join();
+            checkContent(childConfig);
+        
+            // Check that failures are reported as one exception
+            CompletionException readFailure = assertThrows(CompletionException.class,
+                    () -> ConfigPreparer.loadAsync(executor, new File("missing1.cfg"), new File("missing2.cfg"))
+                                        .join());
+            assertTrue(readFailure.getCause() instanceof IOException);
+            assertEquals(1, readFailure.getCause().getSuppressed().length);
+            CompletionException fillFailure = assertThrows(CompletionException.class,
+                    () -> ConfigPreparer.loadAsync(executor, incompleteToLoad)
+                                        .thenCompose(preparer -> preparer.fillConfigAsync(new IncompleteConfig(),
+                                                executor))
+                                        .join());
+            assertTrue(fillFailure.getCause() instanceof IllegalStateException);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void test_changes() throws IOException, URISyntaxException, InterruptedException {
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ConfigPreparer configPreparer = new ConfigPreparer(fileToLoad);
+        ExampleChildConfig childConfig = configPreparer.fillConfig(new ExampleChildConfig());
+        BlockingQueue<List<SettingChange>> allChanges = subscribe(childConfig.changes());
+        BlockingQueue<List<SettingChange>> nestedChanges = subscribe(childConfig.changes("test."));
+        BlockingQueue<List<SettingChange>> preparerChanges = subscribe(configPreparer.changes());
+    
+        // Check that changes of the preparer are emitted as they are added
+        configPreparer.addSettingsSource("withSpacing", "changed");
+        assertEquals(List.of(new SettingChange("withSpacing", "has space", "changed", SettingChange.MAP_SOURCE)),
+                preparerChanges.poll(5, TimeUnit.SECONDS));
+    
+        // Check that subscribers of a prefix are only notified about their settings
+        configPreparer.fillConfig(childConfig);
+        assertEquals(List.of(new SettingChange("withSpacing", "has space", "changed", SettingChange.FILL_SOURCE)),
+                allChanges.poll(5, TimeUnit.SECONDS));
+        configPreparer.addSettingsSource("test.nestedId", "54321").fillConfig(childConfig);
+        assertEquals(List.of(new SettingChange("nestedId", "12345", "54321", SettingChange.FILL_SOURCE)),
+                nestedChanges.poll(5, TimeUnit.SECONDS));
+        assertNotNull(allChanges.poll(5, TimeUnit.SECONDS));
+        
+        // Check that batches without settings of the prefix are skipped, using a later nested change as sentinel
+        configPreparer.addSettingsSource("withSpacing", "changed again").fillConfig(childConfig);
+        configPreparer.addSettingsSource("test.nestedId", "11111").fillConfig(childConfig);
+        assertEquals(List.of(new SettingChange("nestedId", "54321", "11111", SettingChange.FILL_SOURCE)),
+                nestedChanges.poll(5, TimeUnit.SECONDS));
+    }
+    
+    private BlockingQueue<List<SettingChange>> subscribe(Flow.Publisher<List<SettingChange>> publisher) {
+        BlockingQueue<List<SettingChange>> received = new LinkedBlockingQueue<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+            
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+            
+            @Override
+            public void onNext(List<SettingChange> changes) {
+                received.add(changes);
+                subscription.request(1);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+            }
+            
+            @Override
+            public void onComplete() {
+            }
+        });
+        return received;
+    }
+    
+    @Test
+    void test_collections() throws IOException {
+        // Check that elements are converted according to the generic types
+        ConfigPreparer configPreparer = new ConfigPreparer(
+                Map.of("numbers", "1, 2,3", "escaped", "a\\,b,c\\\\", "ids", "7,8,7", "weights", "x:0.5,y\\:z:1"));
+        ExampleCollectionConfig collectionConfig = configPreparer.fillConfig(new ExampleCollectionConfig());
+        assertEquals(List.of(1, 2, 3), collectionConfig.numbers);
+        assertEquals(List.of("a,b", "c\\"), collectionConfig.escaped);
+        assertEquals(Set.of(7L, 8L), collectionConfig.ids);
+        assertEquals(Map.of("x", 0.5, "y:z", 1.0), collectionConfig.weights);
+        assertThrows(UnsupportedOperationException.class, () -> collectionConfig.numbers.add(4));
+    
+        // Check that storing and reloading keeps the elements intact
+        collectionConfig.store(CONFIG_STORE_FILE);
+        ExampleCollectionConfig reloaded = new ConfigPreparer(CONFIG_STORE_FILE).fillConfig(
+                new ExampleCollectionConfig());
+        assertEquals(collectionConfig.numbers, reloaded.numbers);
+        assertEquals(collectionConfig.escaped, reloaded.escaped);
+        assertEquals(collectionConfig.ids, reloaded.ids);
+        assertEquals(collectionConfig.weights, reloaded.weights);
+        
+        // Check that sets and maps are stored in the order of their elements
+        List<String> stored = Files.readAllLines(CONFIG_STORE_FILE.toPath(), StandardCharsets.ISO_8859_1);
+        assertTrue(stored.contains("ids=7,8"), stored.toString());
+        assertTrue(stored.contains("weights=x:0.5,y\\\\:z:1.0"), stored.toString());
+    }
+    
+    @Test
+    void test_arrays() throws IOException {
+        // Check that arrays are converted according to their component types
+        ConfigPreparer configPreparer = new ConfigPreparer(
+                Map.of("buckets", "-2147483648, 0,2147483647", "shards", "9223372036854775807,-1", "weights",
+                        "0.5, 1e3", "names", "a\\,b,c", "boxed", "1,2"));
+        ExampleArrayConfig arrayConfig = configPreparer.fillConfig(new ExampleArrayConfig());
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE}, arrayConfig.buckets);
+        assertArrayEquals(new long[]{Long.MAX_VALUE, -1}, arrayConfig.shards);
+        assertArrayEquals(new double[]{0.5, 1000}, arrayConfig.weights);
+        assertArrayEquals(new String[]{"a,b", "c"}, arrayConfig.names);
+        assertArrayEquals(new Integer[]{1, 2}, arrayConfig.boxed);
+    
+        // Check that storing and reloading keeps the elements intact
+        arrayConfig.store(CONFIG_STORE_FILE);
+        ExampleArrayConfig reloaded = new ConfigPreparer(CONFIG_STORE_FILE).fillConfig(new ExampleArrayConfig());
+        assertArrayEquals(arrayConfig.buckets, reloaded.buckets);
+        assertArrayEquals(arrayConfig.shards, reloaded.shards);
+        assertArrayEquals(arrayConfig.weights, reloaded.weights);
+        assertArrayEquals(arrayConfig.names, reloaded.names);
+    
+        // Check that overflows are detected
+        assertThrows(IllegalStateException.class, () -> new ConfigPreparer(
+                Map.of("buckets", "2147483648", "shards", "1", "weights", "1", "names", "a")).fillConfig(
+                new ExampleArrayConfig()));
+    }
+    
+    @Test
+    void test_streams() throws IOException {
+        // Check that classpath resources are read like files
+        ExampleChildConfig childConfig = new ConfigPreparer().addClasspathSettingsSource("test.cfg").fillConfig(
+                new ExampleChildConfig());
+        checkContent(childConfig);
+        assertThrows(IOException.class, () -> new ConfigPreparer().addClasspathSettingsSource("missing.cfg"));
+        
+        // Check that streams determine their encoding and handle all line terminators
+        byte[] content = "encoding = ISO-8859-1\r\nexisting_value = äöü\rexisting_default = x\n".getBytes(
+                StandardCharsets.ISO_8859_1);
+        IncompleteConfig fromStream = new ConfigPreparer().addSettingsSource(new ByteArrayInputStream(content))
+                                                          .getStump(new IncompleteConfig());
+        assertEquals("äöü", fromStream.readValue);
+        IncompleteConfig fromChannel = new ConfigPreparer().addSettingsSource(
+                Channels.newChannel(new ByteArrayInputStream(content)), StandardCharsets.ISO_8859_1).getStump(
+                new IncompleteConfig());
+        assertEquals("äöü", fromChannel.readValue);
+        IncompleteConfig fromReader = new ConfigPreparer().addSettingsSource(
+                new StringReader("existing_value = read\n# existing_default = comment")).getStump(
+                new IncompleteConfig());
+        assertEquals("read", fromReader.readValue);
+        assertEquals("default", fromReader.existingDefault);
+    }
+    
+    @Test
+    void test_concurrentFill() throws Exception {
+        // Check that filling configs does not modify the preparer
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ConfigPreparer configPreparer = new ConfigPreparer(fileToLoad);
+        String before = configPreparer.toString();
+        configPreparer.fillConfig(new ExampleChildConfig());
+        assertEquals(before, configPreparer.toString());
+        
+        // Check that a built factory fills configs from several threads at once
+        ConfigFactory factory = configPreparer.build();
+        configPreparer.addSettingsSource("withSpacing", "changed afterwards");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> fills = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                fills.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        checkContent(factory.fillConfig(new ExampleChildConfig()));
+                        assertThrows(IllegalStateException.class, () -> factory.fillConfig(new IncompleteConfig()));
+                    }
+                }));
+            }
+            for (Future<?> fill : fills) {
+                fill.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void test_include() throws IOException {
+        Path directory = Files.createTempDirectory("include");
+        try {
+            Path shared = Files.createDirectory(directory.resolve("shared"));
+            Files.writeString(shared.resolve("common.cfg"), "existing_default = common\ninclude = values.cfg\n");
+            Files.writeString(shared.resolve("values.cfg"), "existing_value = shared");
+            Path service = directory.resolve("service.cfg");
+            Files.writeString(service, "include = shared/common.cfg\nexisting_value = own\n");
+            
+            // Check that included settings are resolved relative to the including file and can be overwritten
+            IncompleteConfig fromService = new ConfigPreparer(service.toFile()).getStump(new IncompleteConfig());
+            assertEquals("common", fromService.existingDefault);
+            assertEquals("own", fromService.readValue);
+            IncompleteConfig fromReader = new ConfigPreparer().addSettingsSource(
+                    new StringReader("include = " + shared.resolve("common.cfg"))).getStump(new IncompleteConfig());
+            assertEquals("shared", fromReader.readValue);
+            
+            // Check that a changed fragment is parsed again
+            Files.writeString(shared.resolve("values.cfg"), "existing_value = changed shared value");
+            fromReader = new ConfigPreparer().addSettingsSource(
+                    new StringReader("include = " + shared.resolve("common.cfg"))).getStump(new IncompleteConfig());
+            assertEquals("changed shared value", fromReader.readValue);
+            
+            // Check that pooling preparers get pooled values of fragments parsed without pooling before
+            Files.writeString(shared.resolve("values.cfg"), "existing_value = pooled shared value");
+            String include = "include = " + shared.resolve("common.cfg");
+            new ConfigPreparer().addSettingsSource(new StringReader(include));
+            IncompleteConfig pooled = new ConfigPreparer().withStringPooling(true).addSettingsSource(
+                    new StringReader(include)).getStump(new IncompleteConfig());
+            assertSame(StringPool.canonicalize(new String("pooled shared value")), pooled.readValue);
+            
+            // Check that cyclic includes are detected
+            Files.writeString(shared.resolve("values.cfg"), "include = ../service.cfg");
+            IOException cycle = assertThrows(IOException.class, () -> new ConfigPreparer(service.toFile()));
+            assertTrue(cycle.getMessage().startsWith("Cyclic inclusion"));
+            
+            // Check that included files are read with the encoding of the including file
+            Files.write(shared.resolve("values.cfg"), "existing_value = äöü".getBytes(StandardCharsets.ISO_8859_1));
+            Files.writeString(service, "encoding = ISO-8859-1\ninclude = shared/values.cfg\n");
+            assertEquals("äöü", new ConfigPreparer(service.toFile()).getStump(new IncompleteConfig()).readValue);
+        } finally {
+            deleteRecursively(directory.toFile());
+        }
+    }
+    
+    @Test
+    void test_frozenSettings() throws IOException, URISyntaxException, ReflectiveOperationException {
+        // Check that frozen settings fill configs like regular ones
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ConfigPreparer frozenPreparer = new ConfigPreparer(fileToLoad).withFrozenSettings(true);
+        ExampleChildConfig frozen = frozenPreparer.fillConfig(new ExampleChildConfig());
+        checkContent(frozen);
+        assertEquals(new ConfigPreparer(fileToLoad).fillConfig(new ExampleChildConfig()).toString(),
+                frozen.toString());
+        
+        // Check that large and non-ASCII key sets are found, and that later changes are frozen again
+        Map<String, String> settings = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            settings.put("flag." + i, Integer.toString(i));
+        }
+        settings.put("existing_value", "ä€\uD83D\uDE00");
+        settings.put("\uD83D\uDE00", "emoji");
+        settings.put("\uFFFF", "last");
+        ConfigPreparer largePreparer = new ConfigPreparer(settings).withFrozenSettings(true);
+        IncompleteConfig large = largePreparer.getStump(new IncompleteConfig());
+        assertEquals("ä€\uD83D\uDE00", large.readValue);
+        largePreparer.addSettingsSource("existing_value", "changed");
+        Object frozenSettings = sharedSettingsOf(largePreparer);
+        assertEquals("changed", largePreparer.getStump(new IncompleteConfig()).readValue);
+        // filling must not freeze the settings again, so concurrent fills don't race on them
+        assertSame(frozenSettings, sharedSettingsOf(largePreparer));
+        settings.put("existing_value", "changed");
+        settings.put("existing_default", "default");
+        assertEquals(new ConfigPreparer(settings).getStump(new IncompleteConfig()).toString(),
+                largePreparer.getStump(new IncompleteConfig()).toString());
+    }
+    
+    @Test
+    void test_sharedSegment() throws IOException, URISyntaxException {
+        Path directory = Files.createTempDirectory("segment");
+        try {
+            Path segment = directory.resolve("settings.segment");
+            File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+            ConfigPreparer publisher = new ConfigPreparer(fileToLoad).publishSettings(segment);
+            
+            // Check that attached settings fill configs like the published ones
+            ConfigPreparer reader = new ConfigPreparer().addSharedSettingsSource(segment);
+            ExampleChildConfig attached = reader.fillConfig(new ExampleChildConfig());
+            checkContent(attached);
+            assertEquals(publisher.toString(), reader.toString());
+            
+            // Check that attached readers keep their snapshot, even if the segment gets compacted meanwhile
+            for (int i = 0; i < 10; i++) {
+                publisher.addSettingsSource("withSpacing", "published " + i).publishSettings(segment);
+            }
+            assertEquals("has space", reader.fillConfig(new ExampleChildConfig()).withSpacing);
+            assertEquals("published 9", new ConfigPreparer().addSharedSettingsSource(segment).fillConfig(
+                    new ExampleChildConfig()).withSpacing);
+            
+            // Check that other files are rejected
+            assertThrows(IOException.class, () -> new ConfigPreparer().addSharedSettingsSource(fileToLoad.toPath()));
+        } finally {
+            deleteRecursively(directory.toFile());
+        }
+    }
+    
+    @Test
+    void test_featureFlags() {
+        Map<String, String> settings = Map.of("enabled", "Yes", "feature.verbose", "off", "feature.new_checkout", "1",
+                "feature.dark_mode", "ON", "toggles", "true, 0,no");
+        ExampleFlagConfig config = new ConfigPreparer(settings).fillConfig(new ExampleFlagConfig());
+        assertTrue(config.enabled);
+        assertFalse(config.verbose);
+        assertArrayEquals(new boolean[]{true, false, false}, config.toggles);
+        
+        // Check that flags are compiled into ids
+        FeatureFlags flags = config.featureFlags("feature.");
+        assertEquals(3, flags.size());
+        int newCheckout = flags.id("new_checkout");
+        assertTrue(flags.isEnabled(newCheckout));
+        assertTrue(flags.isEnabled("dark_mode"));
+        assertFalse(flags.isEnabled("verbose"));
+        assertEquals(-1, flags.id("unknown"));
+        assertFalse(flags.isEnabled(flags.id("unknown")));
+        assertEquals(Set.of("dark_mode", "new_checkout"), flags.enabledFlags());
+        
+        // Check that invalid booleans are not taken as false
+        assertThrows(IllegalStateException.class, () -> new ConfigPreparer(
+                Map.of("enabled", "ture", "feature.verbose", "no")).fillConfig(new ExampleFlagConfig()));
+        assertThrows(IllegalStateException.class,
+                () -> new ConfigPreparer(Map.of("feature.broken", "maybe")).featureFlags("feature."));
+        
+        // Check that flags without value are disabled
+        FeatureFlags stumpFlags = new ConfigPreparer(Map.of("enabled", "yes", "feature.empty", "")).getStump(
+                new ExampleFlagConfig()).featureFlags("feature.");
+        assertEquals(2, stumpFlags.size());
+        assertFalse(stumpFlags.isEnabled("verbose"));
+        assertFalse(stumpFlags.isEnabled("empty"));
+    }
+    
+    @Test
+    void test_enums() throws IOException {
+        Map<String, String> settings = Map.of("level", "Verbose", "enabledLevels", "info, warn,DEBUG", "history",
+                "dbg,Info", "ordered", "warn");
+        ExampleEnumConfig config = new ConfigPreparer(settings).fillConfig(new ExampleEnumConfig());
+        assertEquals(ExampleEnumConfig.Level.DEBUG, config.level);
+        assertEquals(EnumSet.allOf(ExampleEnumConfig.Level.class), config.enabledLevels);
+        assertEquals(List.of(ExampleEnumConfig.Level.DEBUG, ExampleEnumConfig.Level.INFO), config.history);
+        assertArrayEquals(new ExampleEnumConfig.Level[]{ExampleEnumConfig.Level.WARN}, config.ordered);
+        
+        // Check that enums are stored by their names and can be read again
+        config.enabledLevels = EnumSet.of(ExampleEnumConfig.Level.WARN);
+        config.store(CONFIG_STORE_FILE);
+        ExampleEnumConfig reloaded = new ConfigPreparer(CONFIG_STORE_FILE).fillConfig(new ExampleEnumConfig());
+        assertEquals(EnumSet.of(ExampleEnumConfig.Level.WARN), reloaded.enabledLevels);
+        assertEquals(config.history, reloaded.history);
+        
+        // Check that unknown constants are reported
+        IllegalStateException unknown = assertThrows(IllegalStateException.class,
+                () -> new ConfigPreparer(Map.of("level", "trace", "enabledLevels", "info")).fillConfig(
+                        new ExampleEnumConfig()));
+        assertTrue(unknown.getMessage().contains("level"));
+    }
+    
+    @Test
+    void test_units() throws IOException {
+        Map<String, String> settings = Map.of("timeout", "1m30s", "bufferSize", "512MiB", "retryDelay", "PT0.25S",
+                "connectTimeout", "2s", "cacheSize", "1MiB");
+        ExampleUnitConfig config = new ConfigPreparer(settings).fillConfig(new ExampleUnitConfig());
+        assertEquals(Duration.ofSeconds(90), config.timeout);
+        assertEquals(2_000, config.connectTimeout);
+        assertEquals(512L << 20, config.bufferSize.toBytes());
+        assertEquals(1024, config.cacheSize);
+        assertEquals(Duration.ofMillis(250), config.retryDelay);
+        
+        // Check other notations
+        assertEquals(64_000, DataSize.parse("64KB").toBytes());
+        assertEquals(100, DataSize.parse("100").toBytes());
+        assertEquals("64KiB", DataSize.parse("65536 B").toString());
+        ExampleUnitConfig other = new ConfigPreparer(
+                Map.of("timeout", "-250ms", "bufferSize", "1KB", "connectTimeout", "1500", "cacheSize", "4096B"))
+                .fillConfig(new ExampleUnitConfig());
+        assertEquals(Duration.ofMillis(-250), other.timeout);
+        assertEquals(1500, other.connectTimeout);
+        assertEquals(4, other.cacheSize);
+        
+        // Check that durations and sizes are stored so they can be read again
+        config.timeout = Duration.ofMillis(1500);
+        config.store(CONFIG_STORE_FILE);
+        ExampleUnitConfig reloaded = new ConfigPreparer(CONFIG_STORE_FILE).fillConfig(new ExampleUnitConfig());
+        assertEquals(config.timeout, reloaded.timeout);
+        assertEquals(config.bufferSize, reloaded.bufferSize);
+        assertEquals(config.retryDelay, reloaded.retryDelay);
+        assertEquals(config.connectTimeout, reloaded.connectTimeout);
+        
+        // Check that invalid values are reported
+        for (String invalid : List.of("30", "30 parsecs", "s", "9999999999999999999d", "PT30X")) {
+            assertThrows(IllegalStateException.class, () -> new ConfigPreparer(
+                    Map.of("timeout", invalid, "bufferSize", "1KB", "connectTimeout", "1", "cacheSize", "1")).fillConfig(
+                    new ExampleUnitConfig()), invalid);
+        }
+        String overflow = assertThrows(IllegalStateException.class, () -> new ConfigPreparer(
+                Map.of("timeout", "1s", "bufferSize", "1KB", "connectTimeout", "1", "cacheSize", "4TiB")).fillConfig(
+                new ExampleUnitConfig())).getMessage();
+        assertTrue(overflow.contains("cacheSize"), overflow);
+        
+        // Check that numbers without unit aren't scaled, so they can't overflow on the way
+        ExampleUnitConfig large = new ConfigPreparer(Map.of("timeout", "1s", "bufferSize", "1KB", "connectTimeout",
+                "10000000000000", "cacheSize", "1")).fillConfig(new ExampleUnitConfig());
+        assertEquals(10_000_000_000_000L, large.connectTimeout);
+    }
+    
+    @Test
+    void test_conversionCache() throws IOException, URISyntaxException {
+        // Check that cacheable values are shared by configs of different preparers
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ExampleChildConfig first = new ConfigPreparer(fileToLoad).withConversionCache(true).fillConfig(
+                new ExampleChildConfig());
+        ExampleChildConfig second = new ConfigPreparer(fileToLoad).withConversionCache(true).fillConfig(
+                new ExampleChildConfig());
+        checkContent(second);
+        assertSame(first.testUrl, second.testUrl);
+        assertNotSame(first.testUrl, new ConfigPreparer(fileToLoad).fillConfig(new ExampleChildConfig()).testUrl);
+        
+        // Check that values of other converters for the same type are not shared
+        ExampleChildConfig custom = new ConfigPreparer(fileToLoad).withConversionCache(true).registerConverter(URL.class,
+                new SettingConverter(Object::toString, string -> ConfigUtils.createURL(string + "custom"), true))
+                .fillConfig(new ExampleChildConfig());
+        assertEquals(new URL("http://www.testes.comcustom"), custom.testUrl);
+    }
+    
+    @Test
+    void test_journal() throws IOException, URISyntaxException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            File configFile = directory.resolve("service.cfg").toFile();
+            File journalFile = directory.resolve("service.cfg.journal").toFile();
+            File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+            ExampleChildConfig config = new ConfigPreparer(fileToLoad).withJournal(true).fillConfig(
+                    new ExampleChildConfig());
+            
+            // Check that the first store writes the whole file and later ones only append changes
+            config.store(configFile);
+            assertFalse(journalFile.exists());
+            byte[] stored = Files.readAllBytes(configFile.toPath());
+            config.withSpacing = "first change";
+            config.store(configFile);
+            config.withSpacing = "second change";
+            config.testPrimitive = 44;
+            config.store(configFile);
+            assertArrayEquals(stored, Files.readAllBytes(configFile.toPath()));
+            List<String> records = Files.readAllLines(journalFile.toPath(), StandardCharsets.ISO_8859_1);
+            assertEquals(3, records.size());
+            assertTrue(records.contains("withSpacing=first change"));
+            
+            // Check that the journal is replayed, ignoring a torn last record
+            Files.writeString(journalFile.toPath(), "withSpacing=torn", StandardOpenOption.APPEND);
+            ExampleChildConfig reloaded = new ConfigPreparer(configFile).fillConfig(new ExampleChildConfig());
+            assertEquals("second change", reloaded.withSpacing);
+            assertEquals(44, reloaded.testPrimitive);
+            
+            // Check that a large journal gets folded into the config file
+            for (int i = 0; i < 1000; i++) {
+                config.withSpacing = "change " + i + " with some padding to let the journal grow faster";
+                config.store(configFile);
+            }
+            assertTrue(journalFile.length() < 32 * 1024);
+            reloaded = new ConfigPreparer(configFile).fillConfig(new ExampleChildConfig());
+            assertEquals(config.withSpacing, reloaded.withSpacing);
+            
+            // Check that storing without journal removes the outdated journal
+            reloaded.withSpacing = "written directly";
+            reloaded.store(configFile);
+            assertFalse(journalFile.exists());
+            assertEquals("written directly", new ConfigPreparer(configFile).fillConfig(
+                    new ExampleChildConfig()).withSpacing);
+        } finally {
+            deleteRecursively(directory.toFile());
+        }
+    }
+    
+    @Test
+    void test_update() throws Exception {
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        ExampleChildConfig config = new ConfigPreparer(fileToLoad).fillConfig(new ExampleChildConfig());
+        BlockingQueue<List<SettingChange>> batches = subscribe(config.changes());
+        
+        // Check that all values of a batch are applied to the settings and fields at once
+        List<SettingChange> applied = config.update(
+                batch -> batch.set("withSpacing", "updated").set("test_primitive", 7).set("test.nestedId", "99").set(
+                        "custom", 1.5));
+        assertEquals(4, applied.size());
+        assertEquals("updated", config.withSpacing);
+        assertEquals(7, config.testPrimitive);
+        assertEquals(Integer.valueOf(99), config.testNestedConfig.nestedConfigAttribute);
+        assertTrue(config.toString().contains("custom=1.5"));
+        assertEquals(applied, batches.poll(5, TimeUnit.SECONDS));
+        
+        // Check that a failing conversion rejects the whole batch
+        String before = config.toString();
+        assertThrows(IllegalStateException.class,
+                () -> config.update(batch -> batch.set("withSpacing", "rejected").set("test_primitive", "seven")));
+        assertThrows(IllegalStateException.class,
+                () -> config.update(batch -> batch.set("withSpacing", "rejected").set("unconvertible", new Object())));
+        assertEquals("updated", config.withSpacing);
+        assertEquals(before, config.toString());
+        
+        // Check that unchanged values are no changes
+        assertTrue(config.update(batch -> batch.set("withSpacing", "updated")).isEmpty());
+        
+        // Check that readers see all settings of batches which are larger than the shared settings
+        ExampleStressConfig small = new ExampleStressConfig();
+        ReloadStressHarness.reload(small, 0);
+        AtomicBoolean updating = new AtomicBoolean(true);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> tornReads = reader.submit(() -> {
+                int torn = 0;
+                while (updating.get()) {
+                    Map<String, String> extra = small.settings("extra.");
+                    if (!extra.isEmpty() && (extra.size() != 8 || extra.values().stream().distinct().count() != 1))
+                        torn++;
+                }
+                return torn;
+            });
+            for (int generation = 0; generation < 2000; generation++) {
+                String value = Integer.toString(generation);
+                small.update(batch -> {
+                    for (int i = 0; i < 8; i++) batch.set("extra." + i, value);
+                });
+            }
+            updating.set(false);
+            assertEquals(0, tornReads.get());
+        } finally {
+            reader.shutdown();
+        }
+        assertEquals("1999", small.setting("extra.7"));
+        assertEquals("0", small.setting("pair.left"));
+        
+        // Check that updated fields are never ahead of the settings
+        AtomicBoolean assigning = new AtomicBoolean(true);
+        ExecutorService fieldReader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> aheadReads = fieldReader.submit(() -> {
+                int ahead = 0;
+                while (assigning.get()) {
+                    Integer field = small.left;
+                    if (field != null && Integer.parseInt(small.setting("pair.left")) < field) ahead++;
+                }
+                return ahead;
+            });
+            for (int generation = 1; generation <= 2000; generation++) {
+                int value = generation;
+                small.update(batch -> batch.set("pair.left", value));
+            }
+            assigning.set(false);
+            assertEquals(0, aheadReads.get());
+        } finally {
+            fieldReader.shutdown();
+        }
+        assertEquals(Integer.valueOf(2000), small.left);
+    }
+    
+    @Test
+    void test_lazyNestedConfigs() throws IOException {
+        // Check that nested configs without settings are skipped
+        Map<String, String> settings = Map.of("test_primitive", "1", "override", "x", "superValue", "y",
+                "testSettingNotDefault", "z", "class", "java.lang.String", "list", "1", "testUrl", "http://a.b",
+                "nonPublicSetting", "n", "withSpacing", "w");
+        ExampleChildConfig lazy = new ConfigPreparer(settings).withLazyNestedConfigs(true).getStump(
+                new ExampleChildConfig());
+        assertNull(lazy.testNestedConfig);
+        assertNotNull(new ConfigPreparer(settings).getStump(new ExampleChildConfig()).testNestedConfig);
+        
+        // Check that nested configs with settings are still filled
+        Map<String, String> withNested = new HashMap<>(settings);
+        withNested.put("test.nestedId", "5");
+        ExampleChildConfig filled = new ConfigPreparer(withNested).withLazyNestedConfigs(true).withFrozenSettings(true)
+                .getStump(new ExampleChildConfig());
+        assertEquals(Integer.valueOf(5), filled.testNestedConfig.nestedConfigAttribute);
+        
+        // Check that the defaults of skipped nested configs are stored
+        lazy.store(CONFIG_STORE_FILE);
+        assertTrue(Files.readAllLines(CONFIG_STORE_FILE.toPath()).contains("test.nestedId="));
+    }
+    
+    @Test
+    void test_parallelFill() throws IOException, URISyntaxException {
+        // Check that a parallel fill binds the same values, including the ones of slow custom converters
+        File fileToLoad = Paths.get(CONFIG_LOAD_FILE.toURI()).toFile();
+        Set<String> converterThreads = ConcurrentHashMap.newKeySet();
+        ExampleChildConfig childConfig = new ConfigPreparer(fileToLoad).withParallelFill(ForkJoinPool.commonPool())
+                                                                      .registerConverter(URL.class,
+                                                                              new SettingConverter(Object::toString,
+                                                                                      string -> {
+                                                                                          converterThreads.add(
+                                                                                                  Thread.currentThread()
+                                                                                                        .getName());
+                                                                                          return ConfigUtils.createURL(
+                                                                                                  string);
+                                                                                      }))
+                                                                      .fillConfig(new ExampleChildConfig());
+        checkContent(childConfig);
+        assertEquals(new URL("http://www.testes.com"), childConfig.testUrl);
+        assertFalse(converterThreads.contains(Thread.currentThread().getName()));
+        
+        // Check that collections with custom element converters are bound in parallel, too
+        converterThreads.clear();
+        ExampleCollectionConfig collectionConfig = new ConfigPreparer(
+                Map.of("numbers", "1,2,3", "escaped", "a", "ids", "7", "weights", "x:1"))
+                .withParallelFill(ForkJoinPool.commonPool())
+                .registerConverter(Integer.class, new SettingConverter(Object::toString, string -> {
+                    converterThreads.add(Thread.currentThread().getName());
+                    return Integer.valueOf(string);
+                }))
+                .fillConfig(new ExampleCollectionConfig());
+        assertEquals(List.of(1, 2, 3), collectionConfig.numbers);
+        assertFalse(converterThreads.isEmpty());
+        assertFalse(converterThreads.contains(Thread.currentThread().getName()));
+        
+        // Check that problems are reported like in a sequential fill
+        File incompleteFile = Paths.get(CONFIG_INCOMPLETE_LOAD_FILE.toURI()).toFile();
+        String sequential = assertThrows(IllegalStateException.class,
+                () -> new ConfigPreparer(incompleteFile).fillConfig(new IncompleteConfig())).getMessage();
+        for (int i = 0; i < 10; i++) {
+            String parallel = assertThrows(IllegalStateException.class,
+                    () -> new ConfigPreparer(incompleteFile).withParallelFill(ForkJoinPool.commonPool())
+                                                            .fillConfig(new IncompleteConfig())).getMessage();
+            assertEquals(sequential, parallel);
+        }
+    }
+    
+    @Test
+    void test_reloadStress() throws InterruptedException {
+        // Check that reads during a storm of reloads never see torn snapshots
+        ReloadStressHarness.Report report = ReloadStressHarness.run(2, Duration.ofMillis(300));
+        assertTrue(report.reads > 0);
+        assertTrue(report.reloads > 0);
+        assertEquals(0, report.tornReads, report.toString());
+        assertEquals(0, report.failures, report.toString());
+    }
+    
+    @Test
+    void test_snapshotConsistency() throws Exception {
+        // Check in the manner of jcstress that a reader sees either the old or the new snapshot, nothing else
+        Map<String, Integer> outcomes = new ConcurrentHashMap<>();
+        ExecutorService actors = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                ExampleStressConfig config = new ExampleStressConfig();
+                ReloadStressHarness.reload(config, 2 * i);
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                int generation = 2 * i + 1;
+                Future<?> writer = actors.submit(() -> {
+                    barrier.await();
+                    ReloadStressHarness.reload(config, generation);
+                    return null;
+                });
+                Future<Map<String, String>> reader = actors.submit(() -> {
+                    barrier.await();
+                    return config.pair();
+                });
+                writer.get();
+                Map<String, String> pair = reader.get();
+                String outcome = pair.get("left") + "," + pair.get("right");
+                String expectedOld = 2 * i + "," + 2 * i;
+                String expectedNew = generation + "," + generation;
+                outcomes.merge(outcome.equals(expectedOld) ? "old" : outcome.equals(expectedNew) ? "new" : outcome,
+                        1, Integer::sum);
+            }
+        } finally {
+            actors.shutdown();
+        }
+        outcomes.remove("old");
+        outcomes.remove("new");
+        assertTrue(outcomes.isEmpty(), outcomes.toString());
+    }
+    
+    @Test
+    void test_httpSource() throws Exception {
+        // Check that a remote source is only parsed again if it changed
+        AtomicReference<String> content = new AtomicReference<>("pair.left=1\npair.right=1\nservice.name=remote\n");
+        AtomicBoolean failing = new AtomicBoolean(false);
+        List<String> conditions = new CopyOnWriteArrayList<>();
+        AtomicInteger notModified = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/config", exchange -> {
+            String current = content.get();
+            String entityTag = "\"" + current.hashCode() + "\"";
+            String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+            conditions.add(condition + "|" + exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+            exchange.getResponseHeaders().add("ETag", entityTag);
+            exchange.getResponseHeaders().add("Last-Modified", "Sun, 18 Oct 2026 10:00:00 GMT");
+            if (failing.get()) {
+                exchange.sendResponseHeaders(500, -1);
+            } else if (entityTag.equals(condition)) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = current.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            URI uri = new URI("http", null, server.getAddress().getHostString(), server.getAddress().getPort(),
+                    "/config", null, null);
+            HttpSettingsSource source = new HttpSettingsSource(uri);
+            ConfigPreparer configPreparer = new ConfigPreparer().addSettingsSource(source);
+            ExampleStressConfig config = configPreparer.fillConfig(new ExampleStressConfig());
+            assertEquals(Integer.valueOf(1), config.left);
+            assertEquals("remote", config.serviceName);
+            assertEquals("null|null", conditions.get(0));
+            
+            // Check that an unchanged source is answered by 304 and keeps the settings
+            configPreparer.addSettingsSource(source);
+            assertEquals(1, notModified.get());
+            assertEquals("\"" + content.get().hashCode() + "\"|Sun, 18 Oct 2026 10:00:00 GMT", conditions.get(1));
+            assertEquals(Integer.valueOf(1), configPreparer.fillConfig(new ExampleStressConfig()).left);
+            
+            // Check that polling refills the config once the source changed, dropping removed settings
+            BlockingQueue<List<SettingChange>> changes = subscribe(config.changes("pair."));
+            BlockingQueue<IOException> failures = new LinkedBlockingQueue<>();
+            CompletableFuture<Void> polling = configPreparer.pollSettingsSource(source, scheduler,
+                    Duration.ofMillis(10), Duration.ofMillis(5), failures::add, config);
+            content.set("pair.left=2\npair.right=2\n");
+            assertNotNull(changes.poll(5, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(2), config.right);
+            assertNull(config.setting("service.name"));
+            
+            // Check that failed polls are reported, and that the handler can stop the polling
+            failing.set(true);
+            assertTrue(failures.poll(5, TimeUnit.SECONDS).getMessage().contains("500"));
+            CompletableFuture<Void> stopped = configPreparer.pollSettingsSource(source, scheduler,
+                    Duration.ofMillis(10), Duration.ZERO, failure -> {
+                        throw new IllegalStateException("unavailable", failure);
+                    }, config);
+            CompletionException stop = assertThrows(CompletionException.class, stopped::join);
+            assertEquals("unavailable", stop.getCause().getMessage());
+            polling.cancel(false);
+            assertTrue(polling.isCancelled());
+        } finally {
+            scheduler.shutdownNow();
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    void test_secrets() throws IOException {
+        // Check that secrets are decoded lazily and only once
+        AtomicInteger decodings = new AtomicInteger();
+        Map<String, String> settings = Map.of("password", "c2VjcmV0", "token", "enc:reverse:nekot",
+                "unused", "desunu", "api", "enc:base64:a2V5");
+        ConfigPreparer configPreparer = new ConfigPreparer(settings).registerDecoder("reverse", encoded -> {
+            decodings.incrementAndGet();
+            return new StringBuilder(encoded).reverse().toString();
+        });
+        ExampleSecretConfig config = configPreparer.fillConfig(new ExampleSecretConfig());
+        assertEquals(0, decodings.get());
+        assertEquals("secret", config.password.reveal());
+        assertEquals("token", config.token.reveal());
+        assertEquals("token", config.token.reveal());
+        assertEquals(1, decodings.get());
+        assertEquals("******", config.token.toString());
+        
+        // Check that elements of arrays and collections are decoded as well
+        ExampleSecretConfig elements = new ConfigPreparer(
+                Map.of("password", "x", "token", "y", "tokens", "enc:base64:YQ==, b", "keys",
+                        "enc:base64:Yw==")).fillConfig(new ExampleSecretConfig());
+        assertEquals("a", elements.tokens[0].reveal());
+        assertEquals("b", elements.tokens[1].reveal());
+        assertEquals("c", elements.keys.get(0).reveal());
+        
+        // Check that secrets read via getSecret are cached until the config is filled again
+        assertEquals("key", config.secret("api").reveal());
+        assertSame(config.secret("api"), config.secret("api"));
+        Secret beforeReload = config.secret("token");
+        assertEquals("token", beforeReload.reveal());
+        configPreparer.fillConfig(config);
+        assertNotSame(beforeReload, config.secret("token"));
+        assertNull(config.secret("does not exist"));
+        
+        // Check that secrets are stored encoded
+        config.store(CONFIG_STORE_FILE);
+        List<String> stored = Files.readAllLines(CONFIG_STORE_FILE.toPath());
+        assertTrue(stored.contains("password=c2VjcmV0"));
+        assertTrue(stored.contains("token=enc:reverse:nekot"));
+        
+        // Check that unknown decoders and decoders of non-secrets are reported while filling
+        String message = assertThrows(IllegalStateException.class, () -> new ConfigPreparer(
+                Map.of("password", "enc:aes:x", "token", "y")).fillConfig(new ExampleSecretConfig())).getMessage();
+        assertTrue(message.contains("password"), message);
+        assertThrows(IllegalStateException.class, () -> new ConfigPreparer(Map.of("password", "c2VjcmV0")).fillConfig(
+                new ExampleDecodedStringConfig()));
+    }
+    
+    @Test
+    void test_sections() throws IOException {
+        // Check that [section] headers prefix the following settings
+        String content = "test_primitive=1\noverride=x\nsuper_attribute=y\ntestSettingNotDefault=z\n" +
+                         "class=java.lang.String\nlist=1\ntestUrl=http://a.b\nnonPublicSetting=n\nwithSpacing=w\n" +
+                         "[test]\nnestedId = 77\n[ feature ]\nverbose=true\n[]\nenabled=true\n";
+        ConfigPreparer configPreparer = new ConfigPreparer().addSettingsSource(new StringReader(content));
+        ExampleChildConfig childConfig = configPreparer.fillConfig(new ExampleChildConfig());
+        assertEquals(Integer.valueOf(77), childConfig.testNestedConfig.nestedConfigAttribute);
+        assertEquals(1, childConfig.testPrimitive);
+        ExampleFlagConfig flagConfig = configPreparer.fillConfig(new ExampleFlagConfig());
+        assertTrue(flagConfig.enabled);
+        assertTrue(flagConfig.verbose);
+        assertTrue(configPreparer.featureFlags("feature.").isEnabled("verbose"));
+        
+        // Check that settings of a section added in other ways are taken into account
+        configPreparer.addSettingsSource("test.nestedId", "78");
+        assertEquals(Integer.valueOf(78), configPreparer.fillConfig(childConfig).testNestedConfig.nestedConfigAttribute);
+        assertEquals(Integer.valueOf(78),
+                configPreparer.derive().fillConfig(new ExampleChildConfig()).testNestedConfig.nestedConfigAttribute);
+        
+        // Check that sections declared later and enclosing sections know all their settings
+        ConfigPreparer flagPreparer = new ConfigPreparer(Map.of("svc.flags.early", "on")).addSettingsSource(
+                new StringReader("[svc.flags]\nlate=1\n[svc]\nflags.nested=yes\n"));
+        assertEquals(Set.of("early", "late", "nested"), flagPreparer.featureFlags("svc.flags.").enabledFlags());
+        
+        // Check that derived preparers don't share changes of the sections
+        ConfigPreparer derivedPreparer = flagPreparer.derive().addSettingsSource("svc.flags.derived", "on");
+        assertEquals(4, derivedPreparer.featureFlags("svc.flags.").size());
+        assertEquals(3, flagPreparer.featureFlags("svc.flags.").size());
+        
+        // Check that sections of included files only apply to these
+        Path fragment = Files.createTempFile("section", ".cfg");
+        try {
+            Files.write(fragment, List.of("[test]", "nestedId=79"));
+            String including = "[feature]\ninclude=" + fragment.toAbsolutePath() + "\nverbose=false\n";
+            configPreparer.addSettingsSource(new StringReader(including));
+            assertEquals(Integer.valueOf(79),
+                    configPreparer.fillConfig(childConfig).testNestedConfig.nestedConfigAttribute);
+            assertFalse(configPreparer.fillConfig(flagConfig).verbose);
+        } finally {
+            Files.delete(fragment);
+        }
+    }
+    
+    @Test
+    void test_formats() throws IOException {
+        // Check that nested JSON objects and lists are flattened into settings
+        String json = "{\"numbers\": [1, 2, 3], \"escaped\": [\"a,b\", \"c\\\\d\"], \"ids\": [7],\n" +
+                      " \"weights\": null, \"servers\": [{\"host\": \"x\"}, {\"host\": \"y\\u00e4\"}],\n" +
+                      " \"test\": {\"nestedId\": 12345}, \"feature\": {\"enabled\": true}}";
+        ConfigPreparer jsonPreparer = new ConfigPreparer().addSettingsSource(new StringReader(json),
+                SettingsFormat.JSON);
+        ExampleCollectionConfig jsonConfig = jsonPreparer.fillConfig(new ExampleCollectionConfig());
+        assertEquals(List.of(1, 2, 3), jsonConfig.numbers);
+        assertEquals(List.of("a,b", "c\\d"), jsonConfig.escaped);
+        assertEquals(Set.of(7L), jsonConfig.ids);
+        assertNull(jsonConfig.weights);
+        assertEquals("yä", jsonPreparer.getStump(new ExampleStressConfig()).setting("servers.1.host"));
+        assertEquals("12345", jsonPreparer.getStump(new ExampleStressConfig()).setting("test.nestedId"));
+        assertTrue(jsonPreparer.featureFlags("feature.").isEnabled("enabled"));
+        
+        // Check that a YAML subset is flattened the same way
+        String yaml = "# collections\nnumbers: [1, 2, 3]\nescaped:\n- 'a,b'\n- c\\d # comment\nids:\n  - 7\n" +
+                      "weights: ~\ntest:\n  nestedId: 12345\nfeature:\n  enabled: \"true\"\n";
+        ConfigPreparer yamlPreparer = new ConfigPreparer().addSettingsSource(new StringReader(yaml),
+                SettingsFormat.YAML);
+        ExampleCollectionConfig yamlConfig = yamlPreparer.fillConfig(new ExampleCollectionConfig());
+        assertEquals(jsonConfig.numbers, yamlConfig.numbers);
+        assertEquals(jsonConfig.escaped, yamlConfig.escaped);
+        assertEquals(jsonConfig.ids, yamlConfig.ids);
+        assertNull(yamlConfig.weights);
+        assertEquals("12345", yamlPreparer.getStump(new ExampleStressConfig()).setting("test.nestedId"));
+        assertTrue(yamlPreparer.featureFlags("feature.").isEnabled("enabled"));
+        
+        // Check that quotes are respected by flow sequences and escapes are resolved once
+        ConfigPreparer quotedPreparer = new ConfigPreparer().addSettingsSource(new StringReader(
+                "numbers: [1, 2, 3,]\nescaped: ['a,b', \"c\\\\d\"]\nquoted: \"x\\\\n\\ty\"\n"), SettingsFormat.YAML);
+        assertEquals(jsonConfig.escaped, quotedPreparer.getStump(new ExampleCollectionConfig()).escaped);
+        assertEquals(jsonConfig.numbers, quotedPreparer.getStump(new ExampleCollectionConfig()).numbers);
+        assertEquals("x\\n\ty", quotedPreparer.getStump(new ExampleStressConfig()).setting("quoted"));
+        
+        // Check that malformed content is reported
+        assertThrows(IOException.class, () -> new ConfigPreparer().addSettingsSource(new StringReader("{\"a\": }"),
+                SettingsFormat.JSON));
+        assertThrows(IOException.class, () -> new ConfigPreparer().addSettingsSource(new StringReader("a: {b: c}"),
+                SettingsFormat.YAML));
+    }
+    
+    @Test
+    void test_dirtyStore() throws IOException, URISyntaxException, InterruptedException {
+        // Check that the first store reports all settings
+        ExampleChildConfig childConfig = new ConfigPreparer(Paths.get(CONFIG_LOAD_FILE.toURI()).toFile()).fillConfig(
+                new ExampleChildConfig());
+        Files.deleteIfExists(CONFIG_STORE_FILE.toPath());
+        Set<String> changed = childConfig.store(CONFIG_STORE_FILE);
+        assertTrue(changed.contains("test_primitive"));
+        assertTrue(changed.contains("test.nestedId"));
+        
+        // Check that nothing is written if nothing changed
+        FileTime modified = Files.getLastModifiedTime(CONFIG_STORE_FILE.toPath());
+        Thread.sleep(20);
+        assertEquals(Set.of(), childConfig.store(CONFIG_STORE_FILE));
+        assertEquals(modified, Files.getLastModifiedTime(CONFIG_STORE_FILE.toPath()));
+        
+        // Check that an edit by someone else is noticed, even if it keeps the size and the modification time
+        byte[] content = Files.readAllBytes(CONFIG_STORE_FILE.toPath());
+        byte[] marked = content.clone();
+        marked[0] = '#';
+        Files.write(CONFIG_STORE_FILE.toPath(), marked);
+        Files.setLastModifiedTime(CONFIG_STORE_FILE.toPath(), modified);
+        assertFalse(childConfig.store(CONFIG_STORE_FILE).isEmpty());
+        assertArrayEquals(content, Files.readAllBytes(CONFIG_STORE_FILE.toPath()));
+        
+        // Check that only changed fields are reported, also of nested configs
+        childConfig.testPrimitive = 44;
+        childConfig.testNestedConfig.nestedConfigAttribute = 1;
+        assertEquals(Set.of("test_primitive", "test.nestedId"), childConfig.store(CONFIG_STORE_FILE));
+        assertTrue(Files.readAllLines(CONFIG_STORE_FILE.toPath(), StandardCharsets.ISO_8859_1).contains("test_primitive=44"));
+        assertEquals(Set.of(), childConfig.store(CONFIG_STORE_FILE));
+        
+        // Check that the file is written again if it was modified by someone else
+        Files.write(CONFIG_STORE_FILE.toPath(), List.of("test_primitive=1"));
+        assertFalse(childConfig.store(CONFIG_STORE_FILE).isEmpty());
+        assertTrue(Files.readAllLines(CONFIG_STORE_FILE.toPath(), StandardCharsets.ISO_8859_1).contains("test_primitive=44"));
+    }
+    
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) for (File child : children) deleteRecursively(child);
+        file.delete();
+    }
 }
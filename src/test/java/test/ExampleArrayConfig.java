@@ -0,0 +1,22 @@
+package test;
+
+import config.Config;
+import config.Setting;
+
+public class ExampleArrayConfig extends Config {
+    
+    @Setting
+    public int[] buckets;
+    
+    @Setting
+    public long[] shards;
+    
+    @Setting
+    public double[] weights;
+    
+    @Setting
+    public String[] names;
+    
+    @Setting(isOptional = true)
+    public Integer[] boxed;
+}
@@ -0,0 +1,23 @@
+package test;
+
+import config.Config;
+import config.Setting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ExampleCollectionConfig extends Config {
+    
+    @Setting
+    public List<Integer> numbers;
+    
+    @Setting
+    public List<String> escaped;
+    
+    @Setting
+    public Set<Long> ids;
+    
+    @Setting(isOptional = true)
+    public Map<String, Double> weights;
+}
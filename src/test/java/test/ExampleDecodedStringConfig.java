@@ -0,0 +1,10 @@
+package test;
+
+import config.Config;
+import config.Setting;
+
+public class ExampleDecodedStringConfig extends Config {
+    
+    @Setting(decoder = "base64")
+    public String password;
+}
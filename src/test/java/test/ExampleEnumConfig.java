@@ -0,0 +1,34 @@
+package test;
+
+import config.Alias;
+import config.Config;
+import config.Setting;
+
+import java.util.EnumSet;
+import java.util.List;
+
+public class ExampleEnumConfig extends Config {
+    
+    public enum Level {
+        @Alias({"dbg", "verbose"}) DEBUG,
+        INFO,
+        WARN {
+            @Override
+            public String toString() {
+                return "warning";
+            }
+        }
+    }
+    
+    @Setting
+    public Level level;
+    
+    @Setting
+    public EnumSet<Level> enabledLevels;
+    
+    @Setting(isOptional = true)
+    public List<Level> history;
+    
+    @Setting(isOptional = true)
+    public Level[] ordered;
+}
@@ -0,0 +1,16 @@
+package test;
+
+import config.Config;
+import config.Setting;
+
+public class ExampleFlagConfig extends Config {
+    
+    @Setting
+    public boolean enabled;
+    
+    @Setting(descriptor = "feature.verbose")
+    public Boolean verbose;
+    
+    @Setting(isOptional = true)
+    public boolean[] toggles;
+}
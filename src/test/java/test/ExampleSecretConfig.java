@@ -0,0 +1,29 @@
+package test;
+
+import config.Config;
+import config.Secret;
+import config.Setting;
+
+import java.util.List;
+
+public class ExampleSecretConfig extends Config {
+    
+    @Setting(decoder = "base64")
+    public Secret password;
+    
+    @Setting
+    public Secret token;
+    
+    @Setting(decoder = "reverse", isOptional = true)
+    public Secret unused;
+    
+    @Setting(isOptional = true)
+    public Secret[] tokens;
+    
+    @Setting(isOptional = true)
+    public List<Secret> keys;
+    
+    public Secret secret(String settingsName) {
+        return getSecret(settingsName);
+    }
+}
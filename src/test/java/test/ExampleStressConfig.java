@@ -0,0 +1,30 @@
+package test;
+
+import config.Config;
+import config.Setting;
+
+import java.util.Map;
+
+public class ExampleStressConfig extends Config {
+    
+    @Setting(descriptor = "pair.left")
+    public Integer left;
+    
+    @Setting(descriptor = "pair.right")
+    public Integer right;
+    
+    @Setting(descriptor = "service.name", isOptional = true)
+    public String serviceName;
+    
+    public String setting(String settingsName) {
+        return getSetting(settingsName, null);
+    }
+    
+    public Map<String, String> pair() {
+        return getSettings("pair.");
+    }
+    
+    public Map<String, String> settings(String prefix) {
+        return getSettings(prefix);
+    }
+}
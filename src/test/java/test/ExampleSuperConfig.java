@@ -6,7 +6,7 @@ import config.Setting;
 public class ExampleSuperConfig extends Config {
     
     @Setting(descriptor = "super_attribute")
-    public final String superValue = "";
+    public final String superValue = null;
     
     @Setting(descriptor = "override", defaultValue = "superValue")
     String testOverride;
@@ -0,0 +1,25 @@
+package test;
+
+import config.Config;
+import config.DataSize;
+import config.Setting;
+
+import java.time.Duration;
+
+public class ExampleUnitConfig extends Config {
+    
+    @Setting
+    public Duration timeout;
+    
+    @Setting
+    public DataSize bufferSize;
+    
+    @Setting(unit = "ms")
+    public long connectTimeout;
+    
+    @Setting(unit = "KiB")
+    public int cacheSize;
+    
+    @Setting(isOptional = true)
+    public Duration retryDelay;
+}
@@ -0,0 +1,202 @@
+package test;
+
+import config.ConfigPreparer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures reads of a {@link config.Config} while it gets filled again and
+ * again. Reader threads call {@code getSetting}, {@code getSettings(prefix)}
+ * and read bound fields, while a writer thread reloads the {@code Config} via
+ * {@link ConfigPreparer#fillConfig(config.Config)} as fast as it can. Each
+ * reload writes the same generation into both settings of a pair, so a
+ * snapshot read via {@code getSettings(prefix)} holding different values is a
+ * torn read. Bound fields are assigned one after another, so the harness only
+ * counts their mixed reads, but does not treat them as errors.
+ * <p>
+ * Run via {@code main} with the number of reader threads and the duration in
+ * milliseconds as optional arguments.
+ *
+ * @author JonasDoe
+ */
+public final class ReloadStressHarness {
+    /** Number of latency samples kept per reader thread */
+    private static final int SAMPLES_PER_READER = 1 << 18;
+    
+    /**
+     * This a is a pure utility class which should not be instantiated
+     */
+    private ReloadStressHarness() {
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() - 1;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 10_000;
+        System.out.println(run(Math.max(1, readers), Duration.ofMillis(millis)));
+    }
+    
+    /**
+     * Runs the readers and the reloading writer.
+     *
+     * @param readers
+     *         number of reader threads
+     * @param duration
+     *         of the run
+     * @return the measured results
+     * @throws InterruptedException
+     *         if interrupted while waiting for the threads
+     */
+    public static Report run(int readers, Duration duration) throws InterruptedException {
+        ExampleStressConfig config = new ExampleStressConfig();
+        reload(config, 0);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(readers + 1);
+        List<Reader> readerTasks = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            Reader reader = new Reader(config, running, started);
+            readerTasks.add(reader);
+            threads.add(new Thread(reader, "stress-reader-" + i));
+        }
+        long[] reloads = new long[1];
+        long[] reloadNanos = new long[1];
+        threads.add(new Thread(() -> {
+            started.countDown();
+            long begin = System.nanoTime();
+            int generation = 0;
+            while (running.get()) {
+                reload(config, ++generation);
+            }
+            reloads[0] = generation;
+            reloadNanos[0] = System.nanoTime() - begin;
+        }, "stress-writer"));
+        threads.forEach(Thread::start);
+        started.await();
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Report(readerTasks, reloads[0], reloadNanos[0]);
+    }
+    
+    /**
+     * Fills the {@code Config} again, alternating between plain and frozen
+     * settings, so both kinds of snapshots get replaced by each other.
+     */
+    static void reload(ExampleStressConfig config, int generation) {
+        Map<String, String> settings = new HashMap<>();
+        settings.put("pair.left", Integer.toString(generation));
+        settings.put("pair.right", Integer.toString(generation));
+        settings.put("service.name", "stress");
+        new ConfigPreparer(settings).withFrozenSettings(generation % 2 == 1).fillConfig(config);
+    }
+    
+    /**
+     * Reads the {@code Config} in a loop and records the latency of each
+     * round of reads.
+     */
+    private static final class Reader implements Runnable {
+        private final ExampleStressConfig config;
+        private final AtomicBoolean running;
+        private final CountDownLatch started;
+        /** Latencies in nanoseconds, overwritten cyclically once full */
+        private final long[] samples = new long[SAMPLES_PER_READER];
+        private long reads;
+        private long tornReads;
+        private long mixedFieldReads;
+        private long failures;
+        
+        private Reader(ExampleStressConfig config, AtomicBoolean running, CountDownLatch started) {
+            this.config = config;
+            this.running = running;
+            this.started = started;
+        }
+        
+        @Override
+        public void run() {
+            started.countDown();
+            while (running.get()) {
+                long begin = System.nanoTime();
+                try {
+                    Map<String, String> pair = config.pair();
+                    String name = config.setting("service.name");
+                    Integer left = config.left;
+                    Integer right = config.right;
+                    long latency = System.nanoTime() - begin;
+                    samples[(int) (reads % SAMPLES_PER_READER)] = latency;
+                    String pairLeft = pair.get("left");
+                    if (pairLeft == null || !pairLeft.equals(pair.get("right")) || !"stress".equals(name))
+                        tornReads++;
+                    if (left == null || !left.equals(right)) mixedFieldReads++;
+                } catch (RuntimeException e) {
+                    failures++;
+                }
+                reads++;
+            }
+        }
+    }
+    
+    /**
+     * Results of a run.
+     */
+    public static final class Report {
+        public final long reads;
+        public final long tornReads;
+        public final long mixedFieldReads;
+        public final long failures;
+        public final long reloads;
+        public final double reloadsPerSecond;
+        public final long p50Nanos;
+        public final long p99Nanos;
+        public final long p999Nanos;
+        
+        private Report(List<Reader> readers, long reloads, long reloadNanos) {
+            long reads = 0;
+            long tornReads = 0;
+            long mixedFieldReads = 0;
+            long failures = 0;
+            long[] latencies = new long[0];
+            for (Reader reader : readers) {
+                reads += reader.reads;
+                tornReads += reader.tornReads;
+                mixedFieldReads += reader.mixedFieldReads;
+                failures += reader.failures;
+                int sampled = (int) Math.min(reader.reads, SAMPLES_PER_READER);
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + sampled);
+                System.arraycopy(reader.samples, 0, latencies, offset, sampled);
+            }
+            Arrays.sort(latencies);
+            this.reads = reads;
+            this.tornReads = tornReads;
+            this.mixedFieldReads = mixedFieldReads;
+            this.failures = failures;
+            this.reloads = reloads;
+            this.reloadsPerSecond = reloadNanos == 0 ? 0 : reloads * 1e9 / reloadNanos;
+            this.p50Nanos = percentile(latencies, 0.5);
+            this.p99Nanos = percentile(latencies, 0.99);
+            this.p999Nanos = percentile(latencies, 0.999);
+        }
+        
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(
+                    "reads: %d, read latency p50/p99/p999: %d/%d/%d ns, reloads: %d (%.1f/s), torn reads: %d, " +
+                    "mixed field reads: %d, failures: %d", reads, p50Nanos, p99Nanos, p999Nanos, reloads,
+                    reloadsPerSecond, tornReads, mixedFieldReads, failures);
+        }
+    }
+}